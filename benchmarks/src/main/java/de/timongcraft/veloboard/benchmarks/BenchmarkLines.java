@@ -0,0 +1,53 @@
+package de.timongcraft.veloboard.benchmarks;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Two alternating versions of the lines of a board that differ in a given ratio of their lines.
+ */
+final class BenchmarkLines {
+
+    private final List<Component> first;
+    private final List<Component> second;
+    private boolean showingFirst = true;
+
+    BenchmarkLines(int lineCount, double changeRatio) {
+        int changedLines = (int) Math.round(lineCount * changeRatio);
+
+        this.first = new ArrayList<>(lineCount);
+        this.second = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            Component line = line(i, "value " + i);
+            first.add(line);
+            // spreads exactly changedLines changes evenly over the board instead of changing a block at the top
+            boolean changed = (long) i * changedLines / lineCount != (long) (i + 1) * changedLines / lineCount;
+            second.add(changed ? line(i, "changed " + i) : line);
+        }
+    }
+
+    List<Component> first() {
+        return first;
+    }
+
+    List<Component> second() {
+        return second;
+    }
+
+    /**
+     * @return the version of the lines that is not shown currently, which becomes the shown one
+     */
+    List<Component> next() {
+        showingFirst = !showingFirst;
+        return showingFirst ? first : second;
+    }
+
+    private static Component line(int index, String value) {
+        return Component.text("Line " + index + ": ", NamedTextColor.GRAY)
+                .append(Component.text(value, NamedTextColor.GOLD));
+    }
+
+}
@@ -0,0 +1,52 @@
+package de.timongcraft.veloboard.benchmarks;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.netty.MinecraftEncoder;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+
+import java.util.UUID;
+
+/**
+ * A {@link TestPlayer} whose connection encodes every packet with Velocity's encoder while writing it,
+ * so the benchmarks measure building and encoding packets without any networking and without recording them.
+ */
+public final class CapturingPlayer {
+
+    private final TestPlayer player;
+
+    private CapturingPlayer(TestPlayer player) {
+        this.player = player;
+    }
+
+    public static CapturingPlayer create(ProtocolVersion version) {
+        return new CapturingPlayer(TestPlayer.create(version, "Benchmark", UUID.randomUUID(), new MinecraftEncoder(ProtocolUtils.Direction.CLIENTBOUND)));
+    }
+
+    public ConnectedPlayer getPlayer() {
+        return player.getPlayer();
+    }
+
+    /**
+     * Releases all messages written since the last call.
+     *
+     * @return the number of bytes written since the last call
+     */
+    public long drain() {
+        EmbeddedChannel channel = player.getChannel();
+        long bytes = 0;
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            if (message instanceof ByteBuf buf) {
+                bytes += buf.readableBytes();
+            }
+            ReferenceCountUtil.release(message);
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,85 @@
+package de.timongcraft.veloboard.benchmarks;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.ComponentCache;
+import de.timongcraft.veloboard.VeloBoardRegistry;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and encodes the packets of a single line, as sent by {@code VeloBoard} (team prefix)
+ * and {@code SimpleBoard} (score display name).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PacketBenchmark {
+
+    @Param({"MINECRAFT_1_20_3", "MINECRAFT_1_21_4"})
+    private ProtocolVersion version;
+
+    private final EnumSet<UpdateTeamsPacket.FriendlyFlag> friendlyFlags = EnumSet.noneOf(UpdateTeamsPacket.FriendlyFlag.class);
+    private final List<String> teamEntries = List.of("§0");
+    private Component line;
+
+    @Setup
+    public void setup() {
+        VeloBoardRegistry.register();
+
+        line = Component.text("Line: ", NamedTextColor.GRAY).append(Component.text("value", NamedTextColor.GOLD));
+    }
+
+    @Benchmark
+    public int teamPacket() {
+        UpdateTeamsPacket packet = new UpdateTeamsPacket(
+                "veloboard:benchmark:0",
+                UpdateTeamsPacket.Mode.UPDATE_TEAM_INFO,
+                Component.empty(),
+                friendlyFlags,
+                UpdateTeamsPacket.NameTagVisibility.ALWAYS,
+                UpdateTeamsPacket.CollisionRule.ALWAYS,
+                NamedTextColor.BLACK,
+                line,
+                Component.empty(),
+                teamEntries
+        );
+        return EncodedPacket.encode(packet, version).size();
+    }
+
+    @Benchmark
+    public int scorePacket() {
+        return EncodedPacket.encode(scorePacket(new ComponentHolder(version, line)), version).size();
+    }
+
+    @Benchmark
+    public int scorePacketCachedHolder() {
+        return EncodedPacket.encode(scorePacket(ComponentCache.holder(version, line)), version).size();
+    }
+
+    private UpdateScorePacket scorePacket(ComponentHolder holder) {
+        return new UpdateScorePacket("0", "veloboard:benchmark", 0, holder, null);
+    }
+
+}
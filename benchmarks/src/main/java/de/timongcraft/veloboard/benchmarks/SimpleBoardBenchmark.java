@@ -0,0 +1,100 @@
+package de.timongcraft.veloboard.benchmarks;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.LinesEntry;
+import de.timongcraft.veloboard.SimpleBoard;
+import de.timongcraft.veloboard.VeloBoardRegistry;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates the lines of a {@link SimpleBoard}, alternating between two versions of the lines
+ * that differ in {@link #changeRatio} of the lines. Each operation returns the number of bytes written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleBoardBenchmark {
+
+    @Param({"1", "8", "15", "100"})
+    private int lineCount;
+
+    @Param({"0.0", "0.25", "1.0"})
+    private double changeRatio;
+
+    @Param({"MINECRAFT_1_20_3", "MINECRAFT_1_21_4"})
+    private ProtocolVersion version;
+
+    @Param({"false", "true"})
+    private boolean keyedLines;
+
+    private CapturingPlayer player;
+    private SimpleBoard board;
+    private BenchmarkLines lines;
+    private List<LinesEntry> firstEntries;
+    private List<LinesEntry> secondEntries;
+    private boolean showingFirstEntries = true;
+
+    @Setup
+    public void setup() {
+        VeloBoardRegistry.register(true);
+
+        player = CapturingPlayer.create(version);
+        lines = new BenchmarkLines(lineCount, changeRatio);
+
+        board = new SimpleBoard(player.getPlayer(), Component.text("Benchmark"));
+        board.setKeyedLines(keyedLines);
+        board.resend();
+        board.setLineComponents(lines.first());
+
+        firstEntries = toEntries(lines.first());
+        secondEntries = toEntries(lines.second());
+        player.drain();
+    }
+
+    @Benchmark
+    public long setLineComponents() {
+        board.setLineComponents(lines.next());
+        return player.drain();
+    }
+
+    @Benchmark
+    public long setLines() {
+        showingFirstEntries = !showingFirstEntries;
+        board.setLines(showingFirstEntries ? firstEntries : secondEntries);
+        return player.drain();
+    }
+
+    @Benchmark
+    public long setLineComponent() {
+        board.setLineComponent(0, lines.next().get(0));
+        return player.drain();
+    }
+
+    @Benchmark
+    public long resend() {
+        board.resend();
+        return player.drain();
+    }
+
+    private List<LinesEntry> toEntries(List<Component> components) {
+        return components.stream().map(component -> new LinesEntry(component, null, player.getPlayer())).toList();
+    }
+
+}
@@ -0,0 +1,77 @@
+package de.timongcraft.veloboard.benchmarks;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.VeloBoard;
+import de.timongcraft.veloboard.VeloBoardRegistry;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates the lines of a {@link VeloBoard}, alternating between two versions of the lines
+ * that differ in {@link #changeRatio} of the lines. Each operation returns the number of bytes written.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VeloBoardBenchmark {
+
+    @Param({"1", "8", "15"})
+    private int lineCount;
+
+    @Param({"0.0", "0.25", "1.0"})
+    private double changeRatio;
+
+    @Param({"MINECRAFT_1_20_2", "MINECRAFT_1_21_4"})
+    private ProtocolVersion version;
+
+    private CapturingPlayer player;
+    private VeloBoard board;
+    private BenchmarkLines lines;
+
+    @Setup
+    public void setup() {
+        VeloBoardRegistry.register();
+
+        player = CapturingPlayer.create(version);
+        lines = new BenchmarkLines(lineCount, changeRatio);
+
+        board = new VeloBoard(player.getPlayer(), Component.text("Benchmark"));
+        board.initialize();
+        board.updateLines(lines.first());
+        player.drain();
+    }
+
+    @Benchmark
+    public long updateLines() {
+        board.updateLines(lines.next());
+        return player.drain();
+    }
+
+    @Benchmark
+    public long updateLine() {
+        board.updateLine(0, lines.next().get(0));
+        return player.drain();
+    }
+
+    @Benchmark
+    public long resend() {
+        board.resend();
+        return player.drain();
+    }
+
+}
@@ -1,11 +1,25 @@
 package de.timongcraft.veloboard;
 
+import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
 import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
 import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -13,24 +27,101 @@ import java.util.function.Supplier;
 public abstract class AbstractBoard {
 
     private static final String BOARD_IDENTIFIER = "veloboard";
+    private static final String BACK_BUFFER_SUFFIX = ":b";
+    public static final double DEFAULT_SWAP_THRESHOLD = 0.5;
+    /**
+     * The board's own fields, lock and metrics, estimated once.
+     */
+    private static final long BOARD_SIZE = RetainedSize.object(24, 32) + RetainedSize.object(3, 8) + RetainedSize.object(10, 0) + 8 * RetainedSize.object(1, 24);
 
     protected final ConnectedPlayer player;
     protected final String id;
     private final Lock lock = new ReentrantLock();
+    private final BoardMetrics metrics;
     private volatile boolean deleted = false;
+    private volatile boolean eventLoopConfined = false;
+    private int lockDepth = 0;
+    private int batchDepth = 0;
+    private boolean stateChanged = false;
+    private long version = 0;
+    private boolean flushPending = false;
+    private @Nullable BoardScheduler scheduler;
+    private boolean flushScheduled = false;
+    private boolean awaitingWritability = false;
+    private volatile @Nullable ProvidedLines providedLines;
+    private final AnimationPlayback animations = new AnimationPlayback();
+    private boolean shown = false;
+    /**
+     * The packets sent while the full state is rebuilt, instead of being written.
+     */
+    private @Nullable List<MinecraftPacket> capturedPackets;
+    private @Nullable FullState fullState;
+    private volatile boolean doubleBuffered = false;
+    private volatile double swapThreshold = DEFAULT_SWAP_THRESHOLD;
+    /**
+     * The id of the shown objective: the board's id, or its back buffer's id after an odd number of swaps.
+     */
+    private String objectiveId;
+    private boolean compactStorage = false;
 
     public AbstractBoard(Player player) {
         Objects.requireNonNull(player, "player");
         this.player = (ConnectedPlayer) player;
         this.id = BOARD_IDENTIFIER + ":" + player.getUniqueId();
+        this.metrics = BoardMetrics.create(id);
+        this.objectiveId = id;
     }
 
+    /**
+     * Sends the packet to the player. While a batch is running (see {@link #withBatch(Runnable)})
+     * the packet is only queued and the channel is flushed once the outermost batch completes.
+     */
     protected void sendPacket(MinecraftPacket packet) {
+        if (capturedPackets != null) {
+            capturedPackets.add(packet);
+            return;
+        }
+
         if (player.isActive()) {
-            player.getConnection().write(packet);
+            long start = System.nanoTime();
+            MinecraftConnection connection = player.getConnection();
+            Object message = packet;
+            int encodedBytes = 0;
+            if (BoardMetrics.isCountingBytes()) {
+                EncodedPacket encodedPacket = EncodedPacket.encode(packet, player.getProtocolVersion());
+                message = encodedPacket.messageFor(connection);
+                encodedBytes = encodedPacket.size();
+            }
+
+            write(connection, packet.getClass(), message, encodedBytes, start);
         }
     }
 
+    private void write(MinecraftConnection connection, Class<? extends MinecraftPacket> type, Object message, int encodedBytes, long start) {
+        if (batchDepth > 0) {
+            connection.delayedWrite(message);
+            flushPending = true;
+        } else {
+            connection.write(message);
+            metrics.recordFlush();
+        }
+        metrics.recordPacket(type, encodedBytes, System.nanoTime() - start);
+    }
+
+    /**
+     * Records line, title or number format updates that were sent to the client, or skipped because the client already showed them.
+     */
+    protected void recordUpdates(int sent, int suppressed) {
+        metrics.recordUpdates(sent, suppressed);
+    }
+
+    /**
+     * Translates the component in the locale of the player, using the {@link TranslationCache}.
+     */
+    protected Component translate(Component component) {
+        return TranslationCache.translate(player, component);
+    }
+
     public Player getPlayer() {
         return player;
     }
@@ -43,41 +134,700 @@ public abstract class AbstractBoard {
         return id;
     }
 
+    public BoardMetrics getMetrics() {
+        return metrics;
+    }
+
     public boolean isDeleted() {
         return deleted;
     }
 
+    public boolean isEventLoopConfined() {
+        return eventLoopConfined;
+    }
+
+    /**
+     * Confines the board to the event loop of the player's channel: all changes run as tasks on that event loop
+     * without taking the board's lock, and changes made from other threads are handed over to it and return immediately.
+     * Invalid arguments and deleted boards are still thrown to the caller before the hand-over, but failures depending on
+     * the state at the time the change runs (like removing a line that was removed in the meantime) are not:
+     * use the {@code ...Async} variants of the mutators to get notified when a change was sent or failed.
+     * Deleting the board always waits for the event loop.
+     *
+     * <p>Getters not backed by the board's snapshot wait for the event loop when called from other threads.
+     * Called from another event loop, they throw an {@link IllegalStateException} instead, as waiting could deadlock.
+     *
+     * <p><b>Note</b>: This should be set right after creating the board, before it is used by other threads.
+     */
+    public void setEventLoopConfined(boolean eventLoopConfined) {
+        lock.lock();
+        try {
+            this.eventLoopConfined = eventLoopConfined;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     public abstract void clear();
 
+    public boolean isDoubleBuffered() {
+        return doubleBuffered;
+    }
+
+    /**
+     * Enables double buffering: once a change rewrites most of the shown lines, the new state is built on a hidden second
+     * objective, which then replaces the shown one with a single packet, so the client never shows a half-updated board.
+     *
+     * <p>Whether a change is swapped in or diffed in place depends on the {@link #setSwapThreshold(double) swap threshold}.
+     * A {@link VeloBoard} only swaps on clients using display-name scores (1.20.3+), as teams can't be double buffered.
+     */
+    public void setDoubleBuffered(boolean doubleBuffered) {
+        withLock(() -> {
+            this.doubleBuffered = doubleBuffered;
+        });
+    }
+
+    public double getSwapThreshold() {
+        return swapThreshold;
+    }
+
+    /**
+     * Sets the fraction of the shown lines that has to change for a swap.
+     * Diffing in place sends a packet per changed line, each of which the client may render on its own;
+     * a swap sends all lines plus three packets (create, display and remove the objective), but shows them at once.
+     *
+     * @param swapThreshold the fraction, from exclusive 0 to 1 (only full rewrites are swapped); {@value #DEFAULT_SWAP_THRESHOLD} by default
+     */
+    public void setSwapThreshold(double swapThreshold) {
+        if (!(swapThreshold > 0 && swapThreshold <= 1)) {
+            throw new IllegalArgumentException("Swap threshold must be greater than 0 and at most 1");
+        }
+
+        withLock(() -> {
+            this.swapThreshold = swapThreshold;
+        });
+    }
+
+    /**
+     * @return the id of the objective shown to the client
+     */
+    protected String objectiveIdUnsafe() {
+        return objectiveId;
+    }
+
+    /**
+     * The cost model of double buffering: whether the change should be swapped in rather than diffed in place.
+     * At least two lines have to change, as a single packet is shown at once anyway, and the board has to be shown,
+     * as nothing half-updated can be seen otherwise. Full sends (like a resend) are never swapped.
+     *
+     * @param changedLines the number of lines the diff would send
+     * @param shownLines   the number of lines after the change
+     */
+    protected boolean shouldSwapUnsafe(int changedLines, int shownLines) {
+        return doubleBuffered && shown && changedLines >= 2 && changedLines >= swapThreshold * Math.max(1, shownLines);
+    }
+
+    /**
+     * Switches the objective id to the back buffer (or back), so that the next state can be built on the hidden objective.
+     *
+     * @return the id of the objective shown until now, which has to be removed after displaying the new one
+     */
+    protected String swapObjectiveIdUnsafe() {
+        String shownObjectiveId = objectiveId;
+        objectiveId = objectiveId.equals(id) ? id + BACK_BUFFER_SUFFIX : id;
+        invalidateFullStateUnsafe();
+        return shownObjectiveId;
+    }
+
+    public boolean isCompactStorage() {
+        return compactStorage;
+    }
+
+    /**
+     * Enables the compact storage mode, for servers holding thousands of boards:
+     * lines are deduplicated into flyweights shared by all boards showing the same line (with their encoded forms),
+     * so that a board only retains references to them.
+     *
+     * <p>Lines already set are compacted right away. Compacting costs a lookup per changed line.
+     *
+     * @see #estimateRetainedSize()
+     */
+    public void setCompactStorage(boolean compactStorage) {
+        withLock(() -> {
+            this.compactStorage = compactStorage;
+            if (compactStorage) compactLinesUnsafe();
+        });
+    }
+
+    /**
+     * Replaces the stored lines with their shared flyweights, once the compact storage mode was enabled.
+     */
+    protected void compactLinesUnsafe() {}
+
+    /**
+     * Estimates the memory retained by this board: its own fields, the lines and the cached state for resyncs.
+     * Shared flyweights of compact boards and the shared encoded forms of the {@link ComponentCache} aren't counted;
+     * the lines of other boards are assumed to be owned by the board.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateRetainedSize() {
+        return withLock(() -> {
+            long size = BOARD_SIZE + retainedSizeOfStateUnsafe();
+            if (fullState != null) {
+                size += RetainedSize.object(3, 0) + RetainedSize.list(fullState.packets().size());
+                for (EncodedPacket packet : fullState.packets()) {
+                    size += RetainedSize.object(3, 0) + RetainedSize.array(packet.size(), 1);
+                }
+            }
+            return size;
+        });
+    }
+
+    /**
+     * @return the estimated memory retained by the lines, title and pending state of the board, see {@link RetainedSize}
+     */
+    protected long retainedSizeOfStateUnsafe() {
+        return 0;
+    }
+
+    /**
+     * Shows the board again after the client forgot it, which clients since 1.20.2 do when the player switches the backend server.
+     *
+     * <p>Unlike a resend, no removals are sent: the full state of the board is replayed in one flush.
+     * It is encoded once and cached until the board changes, so resyncing many players at once is cheap.
+     * Older clients keep their scoreboard across server switches, so the board is resent to them instead.
+     *
+     * <p>Called automatically after server switches once {@link VeloBoardRegistry#registerResync(Object, com.velocitypowered.api.proxy.ProxyServer)} was called.
+     */
+    public abstract void resync();
+
+    /**
+     * @return whether the client has to be resynced (1.20.2+) rather than being sent a resend
+     */
+    protected boolean canResyncUnsafe() {
+        return player.getProtocolVersion().getProtocol() >= ProtocolVersion.MINECRAFT_1_20_2.getProtocol();
+    }
+
+    /**
+     * Marks the board as shown to (initialized) or removed from (cleared) the client, so that it is resynced after server switches.
+     */
+    protected void setShownUnsafe(boolean shown) {
+        if (this.shown == shown) return;
+
+        this.shown = shown;
+        if (shown) {
+            BoardResync.track(player, this);
+        } else {
+            BoardResync.untrack(player, this);
+        }
+    }
+
+    /**
+     * Replays the cached full state of the board. If the board changed since it was cached, the action rebuilds it:
+     * it must send all packets required to show the board on a client that doesn't know it.
+     */
+    protected void replayFullStateUnsafe(Runnable sendFullState) {
+        ProtocolVersion version = player.getProtocolVersion();
+        Locale locale = player.getEffectiveLocale();
+        if (fullState == null || fullState.version() != version || !Objects.equals(fullState.locale(), locale)) {
+            List<MinecraftPacket> packets = new ArrayList<>();
+            capturedPackets = packets;
+            try {
+                sendFullState.run();
+            } finally {
+                capturedPackets = null;
+            }
+
+            List<EncodedPacket> encodedPackets = new ArrayList<>(packets.size());
+            for (MinecraftPacket packet : packets) {
+                encodedPackets.add(EncodedPacket.encode(packet, version));
+            }
+            fullState = new FullState(version, locale, encodedPackets);
+        }
+
+        setShownUnsafe(true);
+        if (!player.isActive()) return;
+
+        MinecraftConnection connection = player.getConnection();
+        for (EncodedPacket packet : fullState.packets()) {
+            write(connection, packet.getPacket().getClass(), packet.messageFor(connection), packet.size(), System.nanoTime());
+        }
+    }
+
+    /**
+     * Drops the cached full state, for changes of the shown state that aren't covered by {@link #stateChangedUnsafe()}.
+     */
+    protected void invalidateFullStateUnsafe() {
+        fullState = null;
+    }
+
+    public @Nullable BoardScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Attaches the board to a scheduler: while it is running, changes to the lines, title and number format
+     * are only applied to the board and the final state is sent once per frame of the scheduler.
+     *
+     * <p>Detaching the board ({@code null}) sends pending changes immediately.
+     */
+    public void setScheduler(@Nullable BoardScheduler scheduler) {
+        withBatch(() -> {
+            if (this.scheduler != null) {
+                this.scheduler.untrack(this);
+            }
+            this.scheduler = scheduler;
+            updateTrackingUnsafe();
+
+            if (scheduler == null && flushScheduled && !awaitingWritability) {
+                flushScheduled = false;
+                flushPendingUnsafe();
+            }
+        });
+    }
+
+    /**
+     * Backs the lines of the board by providers: all providers are evaluated and the lines are replaced by their values.
+     * Afterward, {@link #refreshLines()} only evaluates the providers whose refresh interval is due
+     * and only sends the lines whose value changed.
+     *
+     * <p>If the board is attached to a {@link BoardScheduler}, the scheduler refreshes the lines every frame.
+     * Providers are evaluated on the calling thread without holding the board's lock.
+     *
+     * @param providers the providers of the lines, or {@code null} to stop providing the lines
+     */
+    public void setLineProviders(@Nullable List<LineProvider> providers) {
+        ProvidedLines newProvidedLines = providers != null ? new ProvidedLines(providers) : null;
+        List<Component> lines = newProvidedLines != null ? newProvidedLines.evaluateAll(player, System.nanoTime()) : null;
+        withBatch(() -> {
+            providedLines = newProvidedLines;
+            if (lines != null) setProvidedLinesUnsafe(lines);
+            updateTrackingUnsafe();
+        });
+    }
+
+    /**
+     * Evaluates the due line providers and updates the lines whose value changed.
+     *
+     * @see #setLineProviders(List)
+     */
+    public void refreshLines() {
+        refreshLinesThen(null);
+    }
+
+    /**
+     * Evaluates the due line providers without holding the lock, then updates the lines whose value changed
+     * and runs the action in one batch.
+     */
+    private void refreshLinesThen(@Nullable Runnable action) {
+        ProvidedLines provided = providedLines;
+        if (provided == null) {
+            if (action != null) withBatch(action);
+            return;
+        }
+
+        // serializes the refreshes, so that the values are applied in the order they were evaluated
+        synchronized (provided) {
+            List<ProvidedLines.ChangedLine> changedLines = provided.refreshDue(player, System.nanoTime());
+            if (changedLines.isEmpty() && action == null) return;
+
+            withBatch(() -> {
+                // the providers may have been replaced while they were evaluated
+                if (providedLines == provided) {
+                    for (ProvidedLines.ChangedLine changedLine : changedLines) {
+                        setProvidedLineUnsafe(changedLine.lineIndex(), changedLine.line());
+                    }
+                }
+                if (action != null) action.run();
+            });
+        }
+    }
+
+    /**
+     * Plays the animation as the title of the board, starting with the frame currently shown by the shared clock.
+     * Setting the title directly doesn't stop the animation.
+     *
+     * <p>If the board is attached to a {@link BoardScheduler}, the scheduler advances the animations every frame,
+     * otherwise {@link #advanceAnimations()} has to be called.
+     *
+     * @param animation the animation, or {@code null} to stop animating the title
+     */
+    public void setTitleAnimation(@Nullable Animation animation) {
+        withBatch(() -> {
+            animations.setTitle(animation);
+            updateTrackingUnsafe();
+            advanceAnimationsUnsafe();
+        });
+    }
+
+    /**
+     * Plays the animation as the line at the index. Setting the line directly doesn't stop the animation.
+     *
+     * @param animation the animation, or {@code null} to stop animating the line
+     * @see #setTitleAnimation(Animation)
+     */
+    public void setLineAnimation(int lineIndex, @Nullable Animation animation) {
+        checkAnimatedLineIndex(lineIndex);
+        withBatch(() -> {
+            animations.setLine(lineIndex, animation);
+            updateTrackingUnsafe();
+            advanceAnimationsUnsafe();
+        });
+    }
+
+    /**
+     * Shows the current frame of each animation whose frame changed.
+     *
+     * @see #setTitleAnimation(Animation)
+     */
+    public void advanceAnimations() {
+        withBatch(this::advanceAnimationsUnsafe);
+    }
+
+    private void advanceAnimationsUnsafe() {
+        animations.advance(System.nanoTime(), this::setTitleFrameUnsafe, this::setLineFrameUnsafe);
+    }
+
+    /**
+     * Shows the frame of the animation as the title.
+     */
+    protected abstract void setTitleFrameUnsafe(Animation animation, int frame);
+
+    /**
+     * Shows the frame of the animation as the line at the index.
+     */
+    protected abstract void setLineFrameUnsafe(int lineIndex, Animation animation, int frame);
+
+    /**
+     * Checks the index of an animated line before the animation is stored, so that an index the board can't show
+     * is thrown to the caller instead of failing on every frame.
+     */
+    protected abstract void checkAnimatedLineIndex(int lineIndex);
+
+    /**
+     * Returns the frame serialized for the player's version: shared by all boards, unless the frame has to be translated.
+     */
+    protected ComponentHolder frameHolder(Animation animation, int frame) {
+        return animation.getHolder(player, frame);
+    }
+
+    private void updateTrackingUnsafe() {
+        if (scheduler == null) return;
+
+        if (providedLines != null || !animations.isEmpty()) {
+            scheduler.track(this);
+        } else {
+            scheduler.untrack(this);
+        }
+    }
+
+    /**
+     * Replaces all lines with the values of the line providers.
+     */
+    protected abstract void setProvidedLinesUnsafe(List<Component> lines);
+
+    /**
+     * Replaces a line with the new value of its line provider.
+     */
+    protected abstract void setProvidedLineUnsafe(int lineIndex, Component line);
+
+    /**
+     * Checks whether an update should be deferred instead of being sent now: to the scheduler, or until the player's channel
+     * is writable again, so that a slow client never gets intermediate states queued up in its outbound buffer.
+     * If so, the board has to remember the changes until {@link #flushPendingUnsafe()} is called.
+     */
+    protected boolean deferUpdateUnsafe() {
+        if (awaitingWritability || !isChannelWritable()) {
+            flushScheduled = true;
+            awaitWritabilityUnsafe();
+            return true;
+        }
+
+        if (scheduler == null || !scheduler.isRunning()) {
+            return false;
+        }
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.enqueue(this);
+        }
+        return true;
+    }
+
+    /**
+     * Sends all changes deferred by {@link #deferUpdateUnsafe()}. Runs while holding the lock, as part of a batch.
+     */
+    protected void flushPendingUnsafe() {}
+
+    void flushScheduled() {
+        if (eventLoopConfined && !eventLoop().inEventLoop()) {
+            eventLoop().execute(this::flushScheduled);
+            return;
+        }
+
+        if (deleted) return;
+
+        try {
+            withBatch(() -> {
+                if (!flushScheduled) return;
+
+                if (awaitingWritability || !isChannelWritable()) {
+                    awaitWritabilityUnsafe();
+                    return;
+                }
+
+                flushScheduled = false;
+                flushPendingUnsafe();
+            });
+        } catch (IllegalStateException e) {
+            if (!deleted) throw e;
+        }
+    }
+
+    private boolean isChannelWritable() {
+        return !player.isActive() || player.getConnection().getChannel().isWritable();
+    }
+
+    /**
+     * Waits for the channel to become writable again (see {@link WritabilityListener}) and then sends the conflated changes.
+     */
+    private void awaitWritabilityUnsafe() {
+        if (awaitingWritability) return;
+
+        awaitingWritability = true;
+        WritabilityListener.await(player.getConnection().getChannel(), this);
+    }
+
+    /**
+     * Called on the event loop once the channel is writable again after {@link #awaitWritabilityUnsafe()}.
+     */
+    void writabilityRestored() {
+        if (deleted) return;
+
+        try {
+            withBatch(() -> {
+                awaitingWritability = false;
+                if (!flushScheduled) return;
+
+                flushScheduled = false;
+                flushPendingUnsafe();
+            });
+        } catch (IllegalStateException e) {
+            if (!deleted) throw e;
+        }
+    }
+
+    void refreshScheduled() {
+        if (deleted) return;
+
+        try {
+            refreshLinesThen(this::advanceAnimationsUnsafe);
+        } catch (IllegalStateException e) {
+            if (!deleted) throw e;
+        }
+    }
+
     protected void delete() {
         clear();
+        setShownUnsafe(false);
         deleted = true;
+        providedLines = null;
+        metrics.exportSnapshot();
+        if (scheduler != null) {
+            scheduler.untrack(this);
+        }
     }
 
     protected void withLock(Runnable action) {
-        lock.lock();
-        try {
-            if (deleted) {
-                throw new IllegalStateException("This " + getClass().getSimpleName() + " is deleted");
+        if (eventLoopConfined) {
+            EventLoop eventLoop = eventLoop();
+            if (!eventLoop.inEventLoop()) {
+                // thrown to the caller, as exceptions of the handed over action only reach the event loop
+                checkNotDeleted();
+                eventLoop.execute(() -> withLock(action));
+                return;
             }
 
-            action.run();
+            runLockedUnsafe(action);
+            return;
+        }
+
+        lockMeasured();
+        try {
+            runLockedUnsafe(action);
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Like {@link #withLock(Runnable)}, but waits for the event loop of a {@link #setEventLoopConfined(boolean) confined} board
+     * and rethrows the exceptions of the action, for changes the caller has to observe right away (like deleting the board).
+     *
+     * @throws IllegalStateException if a confined board is waited for from another event loop
+     */
+    protected void withLockAwaiting(Runnable action) {
+        withLock(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action as a batch and completes the returned future once it ran,
+     * on the event loop if the board is {@link #setEventLoopConfined(boolean) confined} to it.
+     */
+    protected CompletableFuture<Void> withBatchAsync(Runnable action) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                withBatch(action);
+                future.complete(null);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        };
+
+        if (eventLoopConfined && !eventLoop().inEventLoop()) {
+            eventLoop().execute(task);
+        } else {
+            task.run();
+        }
+        return future;
+    }
+
+    /**
+     * Runs the action while holding the lock and queues all packets sent by it,
+     * flushing them with a single flush once the outermost batch completes.
+     */
+    protected void withBatch(Runnable action) {
+        withLock(() -> {
+            batchDepth++;
+            try {
+                action.run();
+            } finally {
+                if (--batchDepth == 0 && flushPending) {
+                    flushPending = false;
+                    player.getConnection().flush();
+                    metrics.recordFlush();
+                }
+            }
+        });
+    }
+
     protected <T> T withLock(Supplier<T> action) {
-        lock.lock();
+        if (eventLoopConfined) {
+            EventLoop eventLoop = eventLoop();
+            if (!eventLoop.inEventLoop()) {
+                checkNotOnOtherEventLoop(eventLoop);
+                try {
+                    return CompletableFuture.supplyAsync(() -> withLock(action), eventLoop).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) throw cause;
+                    throw e;
+                }
+            }
+
+            return getLockedUnsafe(action);
+        }
+
+        lockMeasured();
         try {
-            if (deleted) {
-                throw new IllegalStateException("This " + getClass().getSimpleName() + " is deleted");
+            return getLockedUnsafe(action);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waiting for the event loop from another event loop of the same group deadlocks if that one ever waits the other way round.
+     */
+    private static void checkNotOnOtherEventLoop(EventLoop eventLoop) {
+        EventLoopGroup group = eventLoop.parent();
+        if (group == null) return;
+
+        for (EventExecutor executor : group) {
+            if (executor.inEventLoop()) {
+                throw new IllegalStateException("A confined board can't be waited for from another event loop");
             }
+        }
+    }
 
+    private void runLockedUnsafe(Runnable action) {
+        getLockedUnsafe(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action and publishes a new snapshot once the outermost locked action changed the state.
+     */
+    private <T> T getLockedUnsafe(Supplier<T> action) {
+        checkNotDeleted();
+        lockDepth++;
+        try {
             return action.get();
         } finally {
-            lock.unlock();
+            if (--lockDepth == 0 && stateChanged) {
+                stateChanged = false;
+                if (!deleted) {
+                    publishSnapshotUnsafe(++version);
+                }
+            }
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Marks the lines, title or number format as changed, so that a new snapshot is published once the outermost
+     * locked action completes.
+     */
+    protected void stateChangedUnsafe() {
+        stateChanged = true;
+        fullState = null;
+    }
+
+    /**
+     * Publishes an immutable snapshot of the current state with the version. Runs while holding the lock.
+     */
+    protected void publishSnapshotUnsafe(long version) {}
+
+    /**
+     * Runs the action as a batch, unless the state was changed since the snapshot with the version was published.
+     *
+     * @return whether the action ran
+     */
+    protected boolean withBatchIfUnchanged(long expectedVersion, Runnable action) {
+        return withLock(() -> {
+            if (version != expectedVersion) return false;
+
+            withBatch(action);
+            return true;
+        });
+    }
+
+    /**
+     * Takes the lock, recording the time spent waiting for it if it is held by another thread.
+     */
+    private void lockMeasured() {
+        if (lock.tryLock()) return;
+
+        long start = System.nanoTime();
+        lock.lock();
+        metrics.recordLockWait(System.nanoTime() - start);
+    }
+
+    protected void checkNotDeleted() {
+        if (deleted) {
+            throw new IllegalStateException("This " + getClass().getSimpleName() + " is deleted");
+        }
+    }
+
+    private EventLoop eventLoop() {
+        return player.getConnection().eventLoop();
+    }
+
+    private record FullState(ProtocolVersion version, @Nullable Locale locale, List<EncodedPacket> packets) {}
+
+}
@@ -0,0 +1,225 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
+
+/**
+ * An immutable sequence of frames shown for the same duration each, usable as the title or a line of a board.
+ *
+ * <p>The frames are serialized once per protocol version and shared by all boards playing the animation.
+ * All animations run on a shared clock, so boards playing the same animation show the same frame at the same time.
+ *
+ * @see AbstractBoard#setTitleAnimation(Animation)
+ * @see AbstractBoard#setLineAnimation(int, Animation)
+ */
+@SuppressWarnings("unused")
+public final class Animation {
+
+    /**
+     * The start of the shared clock.
+     */
+    private static final long EPOCH_NANOS = System.nanoTime();
+
+    private final List<Component> frames;
+    private final long frameNanos;
+    private final long[] fingerprints;
+    private final boolean translatable;
+    private final Map<ProtocolVersion, ComponentHolder[]> holders = new ConcurrentHashMap<>();
+
+    private Animation(List<Component> frames, Duration frameDuration) {
+        Objects.requireNonNull(frameDuration, "frameDuration");
+        if (frames.isEmpty()) {
+            throw new IllegalArgumentException("An animation needs at least one frame");
+        }
+        if (frameDuration.isNegative() || frameDuration.isZero()) {
+            throw new IllegalArgumentException("Frame duration must be positive");
+        }
+
+        this.frames = List.copyOf(frames);
+        this.frameNanos = frameDuration.toNanos();
+        this.fingerprints = this.frames.stream().mapToLong(ComponentFingerprint::of).toArray();
+        this.translatable = this.frames.stream().anyMatch(TranslationCache::containsTranslatable);
+    }
+
+    public static Animation frames(Duration frameDuration, Component... frames) {
+        return frames(frameDuration, Arrays.asList(frames));
+    }
+
+    public static Animation frames(Duration frameDuration, List<Component> frames) {
+        return new Animation(frames, frameDuration);
+    }
+
+    /**
+     * A color gradient moving through the text, one character at a time.
+     *
+     * @param frameCount the number of frames until the gradient is back at its start
+     * @param colors     the colors of the gradient, which wraps around from the last to the first color
+     */
+    public static Animation gradient(String text, Duration frameDuration, int frameCount, TextColor... colors) {
+        Objects.requireNonNull(text, "text");
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("Frame count must be positive");
+        }
+        if (colors.length < 2) {
+            throw new IllegalArgumentException("A gradient needs at least two colors");
+        }
+
+        List<Component> frames = new ArrayList<>(frameCount);
+        for (int frame = 0; frame < frameCount; frame++) {
+            frames.add(gradientFrame(text, (float) frame / frameCount, colors));
+        }
+        return new Animation(frames, frameDuration);
+    }
+
+    /**
+     * Scrolls the text from right to left through a window of the given width.
+     * Text that fits into the window is shown as a single frame.
+     *
+     * @param width the number of characters (code points) visible at once
+     */
+    public static Animation marquee(String text, int width, Duration frameDuration, Style style) {
+        Objects.requireNonNull(text, "text");
+        Objects.requireNonNull(style, "style");
+        if (width < 1) {
+            throw new IllegalArgumentException("Width must be positive");
+        }
+
+        // stepped by code points, so that characters outside the BMP (like emojis) are never split
+        if (text.codePointCount(0, text.length()) <= width) {
+            return new Animation(List.of(Component.text(text, style)), frameDuration);
+        }
+
+        int[] spaced = (text + " ".repeat(width)).codePoints().toArray();
+        List<Component> frames = new ArrayList<>(spaced.length);
+        for (int start = 0; start < spaced.length; start++) {
+            StringBuilder window = new StringBuilder(width);
+            for (int i = 0; i < width; i++) {
+                window.appendCodePoint(spaced[(start + i) % spaced.length]);
+            }
+            frames.add(Component.text(window.toString(), style));
+        }
+        return new Animation(frames, frameDuration);
+    }
+
+    public List<Component> getFrames() {
+        return frames;
+    }
+
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    public Duration getFrameDuration() {
+        return Duration.ofNanos(frameNanos);
+    }
+
+    /**
+     * @return the index of the frame shown at the given {@link System#nanoTime()}
+     */
+    int frameAt(long nowNanos) {
+        return (int) Math.floorMod(Math.floorDiv(nowNanos - EPOCH_NANOS, frameNanos), (long) frames.size());
+    }
+
+    Component getFrame(int frame) {
+        return frames.get(frame);
+    }
+
+    /**
+     * @return the fingerprint of the untranslated frame
+     */
+    long getFingerprint(int frame) {
+        return fingerprints[frame];
+    }
+
+    /**
+     * Whether a frame has to be translated for each player, in which case it can't be shared between boards.
+     */
+    boolean isTranslatable() {
+        return translatable;
+    }
+
+    /**
+     * Returns the frame serialized for the player: shared by all players of the version, unless the frame has to be translated.
+     */
+    ComponentHolder getHolder(ConnectedPlayer player, int frame) {
+        if (translatable) {
+            return ComponentCache.holder(player.getProtocolVersion(), TranslationCache.translate(player, frames.get(frame), fingerprints[frame], true));
+        }
+
+        return getHolder(player.getProtocolVersion(), frame);
+    }
+
+    /**
+     * Returns the frame serialized for the version. The frames of a version are serialized on first use.
+     *
+     * @throws IllegalStateException if the animation {@link #isTranslatable() is translatable}
+     */
+    ComponentHolder getHolder(ProtocolVersion version, int frame) {
+        if (translatable) {
+            throw new IllegalStateException("Translatable frames can't be shared");
+        }
+
+        return holders.computeIfAbsent(version, this::serializeFrames)[frame];
+    }
+
+    /**
+     * A frame of an animation shown as a line, serialized by the animation instead of the board.
+     */
+    record Frame(Animation animation, int frame) implements TeamLine.Source {
+
+        @Override
+        public ComponentHolder holder(ConnectedPlayer player) {
+            return animation.getHolder(player, frame);
+        }
+
+    }
+
+    private ComponentHolder[] serializeFrames(ProtocolVersion version) {
+        ComponentHolder[] serialized = new ComponentHolder[frames.size()];
+        for (int i = 0; i < serialized.length; i++) {
+            ComponentHolder holder = new ComponentHolder(version, frames.get(i));
+            // the holder keeps its serialized form, so packets using it are encoded without serializing the frame again
+            if (version.noLessThan(MINECRAFT_1_20_3)) {
+                holder.getBinaryTag();
+            } else {
+                holder.getJson();
+            }
+            serialized[i] = holder;
+        }
+        return serialized;
+    }
+
+    private static Component gradientFrame(String text, float offset, TextColor[] colors) {
+        List<Component> characters = new ArrayList<>(text.length());
+        int length = text.codePointCount(0, text.length());
+        int index = 0;
+        for (int i = 0; i < text.length(); index++) {
+            int codePoint = text.codePointAt(i);
+            float phase = ((float) index / length + offset) % 1f;
+            characters.add(Component.text(Character.toString(codePoint), colorAt(phase, colors)));
+            i += Character.charCount(codePoint);
+        }
+        return Component.empty().children(characters);
+    }
+
+    private static TextColor colorAt(float phase, TextColor[] colors) {
+        float position = phase * colors.length;
+        int from = Math.min((int) position, colors.length - 1);
+        return TextColor.lerp(position - from, colors[from], colors[(from + 1) % colors.length]);
+    }
+
+}
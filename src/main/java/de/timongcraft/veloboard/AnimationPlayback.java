@@ -0,0 +1,81 @@
+package de.timongcraft.veloboard;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The animations played by a board and the frames it last showed of them.
+ */
+final class AnimationPlayback {
+
+    private @Nullable Track title;
+    private final Map<Integer, Track> lines = new TreeMap<>();
+
+    void setTitle(@Nullable Animation animation) {
+        title = animation != null ? new Track(animation) : null;
+    }
+
+    void setLine(int lineIndex, @Nullable Animation animation) {
+        if (animation != null) {
+            lines.put(lineIndex, new Track(animation));
+        } else {
+            lines.remove(lineIndex);
+        }
+    }
+
+    boolean isEmpty() {
+        return title == null && lines.isEmpty();
+    }
+
+    /**
+     * Passes the animations whose frame changed since they were last advanced to the consumers.
+     */
+    void advance(long nowNanos, TitleFrameConsumer titleConsumer, LineFrameConsumer lineConsumer) {
+        if (title != null && title.advance(nowNanos)) {
+            titleConsumer.accept(title.animation, title.frame);
+        }
+
+        for (Map.Entry<Integer, Track> entry : lines.entrySet()) {
+            Track track = entry.getValue();
+            if (track.advance(nowNanos)) {
+                lineConsumer.accept(entry.getKey(), track.animation, track.frame);
+            }
+        }
+    }
+
+    private static final class Track {
+
+        private final Animation animation;
+        private int frame = -1;
+
+        private Track(Animation animation) {
+            this.animation = animation;
+        }
+
+        private boolean advance(long nowNanos) {
+            int newFrame = animation.frameAt(nowNanos);
+            if (newFrame == frame) return false;
+
+            frame = newFrame;
+            return true;
+        }
+
+    }
+
+    @FunctionalInterface
+    interface TitleFrameConsumer {
+
+        void accept(Animation animation, int frame);
+
+    }
+
+    @FunctionalInterface
+    interface LineFrameConsumer {
+
+        void accept(int lineIndex, Animation animation, int frame);
+
+    }
+
+}
@@ -0,0 +1,208 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the traffic and the cost of a board: packets by type, encoded bytes, updates sent and diffed away,
+ * flushes and the time spent waiting for the board's lock and writing packets.
+ *
+ * <p>Every board has its own metrics, which also count into the {@link #global() global} metrics.
+ * The counters are striped ({@link LongAdder}), so recording is cheap and never contends between boards.
+ *
+ * <p>Encoded bytes are only counted while {@link #setCountingBytes(boolean) enabled}.
+ */
+@SuppressWarnings("unused")
+public final class BoardMetrics {
+
+    private static final BoardMetrics GLOBAL = new BoardMetrics("global", null);
+
+    private static volatile boolean countingBytes = false;
+    private static volatile @Nullable Exporter exporter;
+
+    private final String name;
+    private final @Nullable BoardMetrics parent;
+    private final Map<Class<? extends MinecraftPacket>, LongAdder> packetsByType = new ConcurrentHashMap<>();
+    private final LongAdder packets = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder updatesSent = new LongAdder();
+    private final LongAdder updatesSuppressed = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+
+    private BoardMetrics(String name, @Nullable BoardMetrics parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    static BoardMetrics create(String name) {
+        return new BoardMetrics(name, GLOBAL);
+    }
+
+    /**
+     * @return the sum of the metrics of all boards, including deleted ones
+     */
+    public static BoardMetrics global() {
+        return GLOBAL;
+    }
+
+    public static boolean isCountingBytes() {
+        return countingBytes;
+    }
+
+    /**
+     * Enables counting the encoded bytes of the packets. Boards then encode their packets before writing them,
+     * instead of letting the pipeline encode them, which moves the encoding from the event loop to the updating thread.
+     */
+    public static void setCountingBytes(boolean countingBytes) {
+        BoardMetrics.countingBytes = countingBytes;
+    }
+
+    public static @Nullable Exporter getExporter() {
+        return exporter;
+    }
+
+    /**
+     * Sets the exporter that receives the final metrics of every deleted board and the global metrics on {@link #export()}.
+     */
+    public static void setExporter(@Nullable Exporter exporter) {
+        BoardMetrics.exporter = exporter;
+    }
+
+    /**
+     * Passes the global metrics to the exporter, if one is set.
+     */
+    public static void export() {
+        GLOBAL.exportSnapshot();
+    }
+
+    void exportSnapshot() {
+        Exporter exporter = BoardMetrics.exporter;
+        if (exporter != null) {
+            exporter.export(name, snapshot());
+        }
+    }
+
+    /**
+     * @return the id of the board, or {@code global}
+     */
+    public String getName() {
+        return name;
+    }
+
+    void recordPacket(Class<? extends MinecraftPacket> type, int encodedBytes, long sendNanos) {
+        packetsByType.computeIfAbsent(type, key -> new LongAdder()).increment();
+        packets.increment();
+        if (encodedBytes > 0) bytes.add(encodedBytes);
+        this.sendNanos.add(sendNanos);
+        if (parent != null) parent.recordPacket(type, encodedBytes, sendNanos);
+    }
+
+    void recordUpdates(int sent, int suppressed) {
+        if (sent > 0) updatesSent.add(sent);
+        if (suppressed > 0) updatesSuppressed.add(suppressed);
+        if (parent != null) parent.recordUpdates(sent, suppressed);
+    }
+
+    void recordFlush() {
+        flushes.increment();
+        if (parent != null) parent.recordFlush();
+    }
+
+    void recordLockWait(long nanos) {
+        lockWaitNanos.add(nanos);
+        if (parent != null) parent.recordLockWait(nanos);
+    }
+
+    public long getPackets() {
+        return packets.sum();
+    }
+
+    public long getPackets(Class<? extends MinecraftPacket> type) {
+        LongAdder counter = packetsByType.get(type);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * @return the number of line, title and number format updates that were sent to the client
+     */
+    public long getUpdatesSent() {
+        return updatesSent.sum();
+    }
+
+    /**
+     * @return the number of line, title and number format updates that were not sent, because the client already showed them
+     */
+    public long getUpdatesSuppressed() {
+        return updatesSuppressed.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    public long getSendNanos() {
+        return sendNanos.sum();
+    }
+
+    public Snapshot snapshot() {
+        Map<String, Long> packetsByTypeSnapshot = new TreeMap<>();
+        packetsByType.forEach((type, counter) -> packetsByTypeSnapshot.merge(type.getSimpleName(), counter.sum(), Long::sum));
+
+        return new Snapshot(
+                getPackets(),
+                Map.copyOf(packetsByTypeSnapshot),
+                getBytes(),
+                getUpdatesSent(),
+                getUpdatesSuppressed(),
+                getFlushes(),
+                getLockWaitNanos(),
+                getSendNanos()
+        );
+    }
+
+    /**
+     * Resets the counters of these metrics, without changing the global metrics.
+     */
+    public void reset() {
+        packetsByType.clear();
+        packets.reset();
+        bytes.reset();
+        updatesSent.reset();
+        updatesSuppressed.reset();
+        flushes.reset();
+        lockWaitNanos.reset();
+        sendNanos.reset();
+    }
+
+    /**
+     * @param packetsByType the number of packets by the simple name of their class
+     */
+    public record Snapshot(long packets, Map<String, Long> packetsByType, long bytes, long updatesSent, long updatesSuppressed,
+                           long flushes, long lockWaitNanos, long sendNanos) {}
+
+    @FunctionalInterface
+    public interface Exporter {
+
+        /**
+         * @param name the id of the board, or {@code global}
+         */
+        void export(String name, Snapshot snapshot);
+
+    }
+
+}
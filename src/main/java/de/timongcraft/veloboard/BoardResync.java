@@ -0,0 +1,77 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.event.EventManager;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.player.ServerPostConnectEvent;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the boards shown to each player and resyncs them once the player switched the backend server.
+ *
+ * <p>Boards are only tracked once the listeners are registered, see {@link VeloBoardRegistry#registerResync(Object, ProxyServer)}.
+ */
+final class BoardResync {
+
+    /**
+     * The {@link AbstractBoard}s, {@link BroadcastBoard}s and {@link SharedObjective}s shown to the players.
+     */
+    private static final Map<UUID, Set<Object>> SHOWN_BOARDS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = false;
+
+    static synchronized void register(Object plugin, ProxyServer proxyServer) {
+        if (enabled) return;
+
+        EventManager eventManager = proxyServer.getEventManager();
+        eventManager.register(plugin, ServerPostConnectEvent.class, PostOrder.LAST, BoardResync::onServerPostConnect);
+        eventManager.register(plugin, DisconnectEvent.class, event -> SHOWN_BOARDS.remove(event.getPlayer().getUniqueId()));
+        enabled = true;
+    }
+
+    static void track(Player player, Object board) {
+        if (!enabled) return;
+
+        SHOWN_BOARDS.computeIfAbsent(player.getUniqueId(), uuid -> ConcurrentHashMap.newKeySet()).add(board);
+    }
+
+    static void untrack(Player player, Object board) {
+        SHOWN_BOARDS.computeIfPresent(player.getUniqueId(), (uuid, boards) -> {
+            boards.remove(board);
+            return boards.isEmpty() ? null : boards;
+        });
+    }
+
+    private static void onServerPostConnect(ServerPostConnectEvent event) {
+        // the first server of the player, nothing to resync
+        if (event.getPreviousServer() == null) return;
+
+        Player player = event.getPlayer();
+        Set<Object> boards = SHOWN_BOARDS.get(player.getUniqueId());
+        if (boards == null) return;
+
+        for (Object board : List.copyOf(boards)) {
+            try {
+                if (board instanceof AbstractBoard abstractBoard) {
+                    abstractBoard.resync();
+                } else if (board instanceof BroadcastBoard broadcastBoard) {
+                    broadcastBoard.resync(player);
+                } else if (board instanceof SharedObjective objective) {
+                    objective.resync(player);
+                }
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                // deleted or no longer viewed in the meantime
+                untrack(player, board);
+            }
+        }
+    }
+
+    private BoardResync() {}
+
+}
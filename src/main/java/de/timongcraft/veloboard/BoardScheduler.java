@@ -0,0 +1,177 @@
+package de.timongcraft.veloboard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces board updates: while a board is attached to a running scheduler (see {@link AbstractBoard#setScheduler(BoardScheduler)}),
+ * its mutations only update the board's state, and the final state is sent once per frame.
+ *
+ * <p>Each frame is split into sub-tick slots and every board is assigned to one slot,
+ * so that not all boards are flushed at the same moment.
+ */
+@SuppressWarnings("unused")
+public class BoardScheduler {
+
+    private static final int FLUSH_CHUNK_SIZE = 64;
+
+    private final long slotIntervalNanos;
+    private final Executor workers;
+    private final Queue<AbstractBoard>[] slots;
+    /**
+     * The boards with line providers or animations, refreshed every frame.
+     */
+    private final Set<AbstractBoard>[] refreshedSlots;
+    private ScheduledExecutorService ticker;
+    private int currentSlot = 0;
+    private volatile boolean running = false;
+
+    /**
+     * Creates a scheduler flushing every 50 ms (one server tick) in 10 slots on the common pool.
+     */
+    public BoardScheduler() {
+        this(Duration.ofMillis(50), 10, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param interval     the duration of one frame, every dirty board is flushed once per frame
+     * @param subTickSlots the amount of slots a frame is split into
+     * @param workers      the executor flushing the boards
+     */
+    @SuppressWarnings("unchecked")
+    public BoardScheduler(Duration interval, int subTickSlots, Executor workers) {
+        Objects.requireNonNull(interval, "interval");
+        Objects.requireNonNull(workers, "workers");
+        if (subTickSlots <= 0) {
+            throw new IllegalArgumentException("Sub-tick slots must be positive");
+        }
+        if (interval.toNanos() < subTickSlots) {
+            throw new IllegalArgumentException("Interval is too short for " + subTickSlots + " sub-tick slots");
+        }
+
+        this.slotIntervalNanos = interval.toNanos() / subTickSlots;
+        this.workers = workers;
+        this.slots = new Queue[subTickSlots];
+        this.refreshedSlots = new Set[subTickSlots];
+        for (int i = 0; i < subTickSlots; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+            refreshedSlots[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("This " + getClass().getSimpleName() + " is already running");
+        }
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "VeloBoard Scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        ticker.scheduleAtFixedRate(this::tick, slotIntervalNanos, slotIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the scheduler and flushes all pending boards on the calling thread.
+     * Boards still attached to this scheduler send their updates directly from now on.
+     */
+    public synchronized void stop() {
+        if (!running) return;
+
+        running = false;
+        ticker.shutdown();
+        flushAll();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Flushes all pending boards on the calling thread.
+     */
+    public void flushAll() {
+        for (Queue<AbstractBoard> slot : slots) {
+            AbstractBoard board;
+            while ((board = slot.poll()) != null) {
+                board.flushScheduled();
+            }
+        }
+    }
+
+    void enqueue(AbstractBoard board) {
+        slots[slotOf(board)].add(board);
+    }
+
+    void track(AbstractBoard board) {
+        refreshedSlots[slotOf(board)].add(board);
+    }
+
+    void untrack(AbstractBoard board) {
+        refreshedSlots[slotOf(board)].remove(board);
+    }
+
+    private int slotOf(AbstractBoard board) {
+        return Math.floorMod(board.getId().hashCode(), slots.length);
+    }
+
+    /**
+     * Submits the boards of the current slot to the workers, in chunks, and moves on to the next slot.
+     * Runs on the ticker only, besides tests.
+     */
+    void tick() {
+        Queue<AbstractBoard> slot = slots[currentSlot];
+        Set<AbstractBoard> refreshedSlot = refreshedSlots[currentSlot];
+        currentSlot = (currentSlot + 1) % slots.length;
+
+        List<AbstractBoard> chunk = new ArrayList<>(FLUSH_CHUNK_SIZE);
+        for (AbstractBoard board : refreshedSlot) {
+            chunk.add(board);
+            if (chunk.size() == FLUSH_CHUNK_SIZE) {
+                submit(chunk);
+                chunk = new ArrayList<>(FLUSH_CHUNK_SIZE);
+            }
+        }
+
+        AbstractBoard board;
+        while ((board = slot.poll()) != null) {
+            chunk.add(board);
+            if (chunk.size() == FLUSH_CHUNK_SIZE) {
+                submit(chunk);
+                chunk = new ArrayList<>(FLUSH_CHUNK_SIZE);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            submit(chunk);
+        }
+    }
+
+    private void submit(List<AbstractBoard> boards) {
+        workers.execute(() -> {
+            for (AbstractBoard board : boards) {
+                try {
+                    board.refreshScheduled();
+                    board.flushScheduled();
+                } catch (RuntimeException e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        });
+    }
+
+}
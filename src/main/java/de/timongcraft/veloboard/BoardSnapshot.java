@@ -0,0 +1,38 @@
+package de.timongcraft.veloboard;
+
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.List;
+
+/**
+ * An immutable state of a board. Boards publish a new snapshot once per change (a whole batch counts as one change),
+ * so reading it never takes the board's lock and never copies.
+ *
+ * <p>The version increases with every published snapshot and can be passed to the {@code batchIfUnchanged} methods
+ * of the boards to only apply a change if the board wasn't changed since the snapshot was read.
+ *
+ * @param version       the version of the state, starting at 0 for a new board
+ * @param title         the title as returned by the board's title getter
+ * @param lines         the lines, either {@link Component}s or {@link LinesEntry LinesEntries}
+ * @param numberFormat  the default number format
+ * @param <L>           the type of the lines
+ */
+public record BoardSnapshot<L>(long version, Component title, @Unmodifiable List<L> lines,
+                               ComponentUtils.@Nullable NumberFormat numberFormat) {
+
+    public L getLine(int lineIndex) {
+        if (lineIndex < 0) {
+            throw new IllegalArgumentException("Line index must be non-negative");
+        }
+
+        if (lineIndex >= lines.size()) {
+            throw new IllegalArgumentException("Line index must be within the valid range (index >= 0 && index < " + lines.size() + ")");
+        }
+
+        return lines.get(lineIndex);
+    }
+
+}
@@ -0,0 +1,82 @@
+package de.timongcraft.veloboard;
+
+import io.netty.channel.EventLoop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Bulk operations on many boards at once.
+ */
+@SuppressWarnings("unused")
+public final class Boards {
+
+    /**
+     * Applies the mutator to all boards. Boards {@link AbstractBoard#setEventLoopConfined(boolean) confined} to the event loops
+     * of their players are updated in parallel on those loops: they are grouped by event loop and each group is updated
+     * by a single task on its loop. All other boards are updated on the calling thread, after the tasks were handed over.
+     * Every board is updated as one batch (see {@link VeloBoard#batch(Consumer)}), so its changes are flushed once.
+     *
+     * <p>Deleted boards are skipped. If the mutator fails for some boards, the remaining boards are still updated
+     * and the returned future completes exceptionally once all groups finished.
+     *
+     * <p>Example: {@code Boards.updateAll(boards, VeloBoard::resend)}
+     *
+     * <p><b>Note</b>: For confined boards the mutator runs on an event loop, so it must not block.
+     *
+     * @return a future completed once all boards were updated
+     */
+    public static <B extends AbstractBoard> CompletableFuture<Void> updateAll(Collection<? extends B> boards, Consumer<? super B> mutator) {
+        Objects.requireNonNull(boards, "boards");
+        Objects.requireNonNull(mutator, "mutator");
+
+        Map<EventLoop, List<B>> confinedBoardsByEventLoop = new IdentityHashMap<>();
+        List<B> otherBoards = new ArrayList<>();
+        for (B board : boards) {
+            if (board.isEventLoopConfined()) {
+                confinedBoardsByEventLoop.computeIfAbsent(board.player.getConnection().eventLoop(), eventLoop -> new ArrayList<>()).add(board);
+            } else {
+                otherBoards.add(board);
+            }
+        }
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>(confinedBoardsByEventLoop.size() + 1);
+        confinedBoardsByEventLoop.forEach((eventLoop, group) -> futures.add(CompletableFuture.runAsync(() -> update(group, mutator), eventLoop)));
+        try {
+            update(otherBoards, mutator);
+        } catch (RuntimeException e) {
+            futures.add(CompletableFuture.failedFuture(e));
+        }
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    private static <B extends AbstractBoard> void update(List<B> boards, Consumer<? super B> mutator) {
+        RuntimeException failure = null;
+        for (B board : boards) {
+            if (board.isDeleted()) continue;
+
+            try {
+                board.withBatch(() -> mutator.accept(board));
+            } catch (RuntimeException e) {
+                if (board.isDeleted()) continue;
+
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
+    private Boards() {}
+
+}
@@ -0,0 +1,444 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import de.timongcraft.veloboard.utils.ListUtils;
+import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import de.timongcraft.velopacketimpl.utils.annotations.Since;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_2;
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
+
+/**
+ * A board that shows the same lines to many players.
+ *
+ * <p>Viewers are grouped by protocol version and locale: every update is translated and encoded once per group
+ * and the encoded packets are written to all members of the group.
+ * Like {@link VeloBoard} it uses a team per line, so it works on all versions but is limited to {@link #MAX_LINES_SIZE} lines.
+ *
+ * <p><b>Note</b>: A viewer of a {@link BroadcastBoard} must not have a {@link VeloBoard} at the same time, as both use the same team entries.
+ */
+@SuppressWarnings("unused")
+public class BroadcastBoard extends MultiViewerBoard<BroadcastBoard.GroupKey, BroadcastBoard.ViewerGroup> {
+
+    public static final int MAX_LINES_SIZE = VeloBoard.MAX_LINES_SIZE;
+    private static final String BOARD_IDENTIFIER = "veloboard:broadcast";
+    private static final AtomicInteger BOARD_COUNTER = new AtomicInteger();
+
+    private final String[] teamNames;
+    private Component title;
+    @Since(MINECRAFT_1_20_3)
+    private @Nullable ComponentUtils.NumberFormat defaultNumberFormat;
+    private final List<TeamLine> lines = new ArrayList<>();
+    private volatile BoardSnapshot<Component> snapshot;
+
+    public BroadcastBoard() {
+        this(Component.empty());
+    }
+
+    public BroadcastBoard(Component title) {
+        this(title, null);
+    }
+
+    @Since(MINECRAFT_1_20_3)
+    public BroadcastBoard(Component title, @Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
+        super(BOARD_IDENTIFIER + ":" + BOARD_COUNTER.getAndIncrement());
+        this.teamNames = VeloBoard.createTeamNames(id);
+        this.title = Objects.requireNonNull(title, "title");
+        this.defaultNumberFormat = defaultNumberFormat;
+        this.snapshot = new BoardSnapshot<>(0, this.title, List.of(), defaultNumberFormat);
+    }
+
+    /**
+     * Adds the player as a viewer and sends the current state of the board to them.
+     * A viewer that reconnected without being removed is replaced by their new connection.
+     *
+     * @return false if the player already is a viewer
+     */
+    public boolean addViewer(Player player) {
+        Objects.requireNonNull(player, "player");
+        return withLock(() -> {
+            ConnectedPlayer connectedPlayer = (ConnectedPlayer) player;
+            ViewerGroup group = addViewerUnsafe(connectedPlayer);
+            if (group == null) {
+                return false;
+            }
+
+            sendTo(connectedPlayer, group.getFullState(this));
+            BoardResync.track(player, this);
+            return true;
+        });
+    }
+
+    /**
+     * Removes the player as a viewer and removes the board from their client.
+     *
+     * @return false if the player was not a viewer
+     */
+    public boolean removeViewer(Player player) {
+        Objects.requireNonNull(player, "player");
+        return withLock(() -> {
+            ConnectedPlayer connectedPlayer = removeViewerUnsafe(player);
+            if (connectedPlayer == null) {
+                return false;
+            }
+
+            BoardResync.untrack(player, this);
+            sendTo(connectedPlayer, encode(connectedPlayer.getProtocolVersion(), createRemovePackets(connectedPlayer.getProtocolVersion())));
+            return true;
+        });
+    }
+
+    /**
+     * Regroups the viewer and resends the board to them, e.g. after their locale changed or they switched servers.
+     */
+    public void resend(Player player) {
+        Objects.requireNonNull(player, "player");
+        withLock(() -> resendUnsafe(player, true));
+    }
+
+    /**
+     * Shows the board again to the viewer after their client forgot it, which clients since 1.20.2 do when the player
+     * switches the backend server: the cached full state of their group is replayed without sending removals.
+     * Older clients keep their scoreboard across server switches, so the board is {@link #resend(Player) resent} to them instead.
+     *
+     * <p>Called automatically after server switches once {@link VeloBoardRegistry#registerResync(Object, com.velocitypowered.api.proxy.ProxyServer)} was called.
+     */
+    public void resync(Player player) {
+        Objects.requireNonNull(player, "player");
+        withLock(() -> resendUnsafe(player, player.getProtocolVersion().getProtocol() < MINECRAFT_1_20_2.getProtocol()));
+    }
+
+    private void resendUnsafe(Player player, boolean sendRemovals) {
+        ConnectedPlayer connectedPlayer = viewers.get(player.getUniqueId());
+        if (connectedPlayer == null) {
+            throw new IllegalArgumentException("Player " + player.getUsername() + " is not a viewer of this board");
+        }
+
+        removeFromGroupUnsafe(connectedPlayer);
+        ViewerGroup group = addToGroupUnsafe(connectedPlayer);
+
+        List<EncodedPacket> packets = new ArrayList<>();
+        if (sendRemovals) {
+            packets.addAll(encode(connectedPlayer.getProtocolVersion(), createRemovePackets(connectedPlayer.getProtocolVersion())));
+        }
+        packets.addAll(group.getFullState(this));
+        sendTo(connectedPlayer, packets);
+    }
+
+    /**
+     * Removes the board from all viewers.
+     */
+    public void delete() {
+        withLock(() -> {
+            for (ViewerGroup group : groups.values()) {
+                broadcast(group, packets -> packets.addAll(createRemovePackets(group.key.version())));
+            }
+
+            lines.clear();
+            title = null;
+            defaultNumberFormat = null;
+            deleteUnsafe();
+        });
+    }
+
+    /**
+     * Returns the current state of the board, without taking the lock.
+     *
+     * @see #updateIfUnchanged(long, Consumer)
+     */
+    public BoardSnapshot<Component> getSnapshot() {
+        checkNotDeleted();
+        return snapshot;
+    }
+
+    /**
+     * Runs the action while holding the lock, unless the board was changed since the snapshot with the version was published.
+     *
+     * @return whether the action ran
+     * @see #getSnapshot()
+     */
+    public boolean updateIfUnchanged(long version, Consumer<BroadcastBoard> action) {
+        Objects.requireNonNull(action, "action");
+        return withLock(() -> {
+            if (snapshot.version() != version) return false;
+
+            action.accept(this);
+            return true;
+        });
+    }
+
+    public Component getLine(int lineIndex) {
+        return getSnapshot().getLine(lineIndex);
+    }
+
+    public void updateLine(int lineIndex, Component lineText) {
+        Objects.requireNonNull(lineText, "lineText");
+        withLock(() -> {
+            checkLineIndexUnsafe(lineIndex, false, true);
+
+            List<TeamLine> newLines = new ArrayList<>(lines);
+            ListUtils.setOrPad(newLines, lineIndex, TeamLine.of(lineText), () -> TeamLine.EMPTY);
+            applyLinesUnsafe(newLines);
+        });
+    }
+
+    public void removeLine(int lineIndex) {
+        withLock(() -> {
+            checkLineIndexUnsafe(lineIndex, true, true);
+            List<TeamLine> newLines = new ArrayList<>(lines);
+
+            newLines.remove(lineIndex);
+            applyLinesUnsafe(newLines);
+        });
+    }
+
+    /**
+     * Returns an immutable view of the lines, from the current {@link #getSnapshot() snapshot}.
+     *
+     * @return an unmodifiable list of the current lines
+     */
+    @Unmodifiable
+    public List<Component> getLinesCopy() {
+        return getSnapshot().lines();
+    }
+
+    public int linesSize() {
+        return getSnapshot().lines().size();
+    }
+
+    /**
+     * @see #updateLines(Collection)
+     */
+    public void updateLines(Component... lines) {
+        updateLines(Arrays.asList(lines));
+    }
+
+    public void updateLines(Collection<Component> lines) {
+        Objects.requireNonNull(lines, "lines");
+        for (Component component : lines) {
+            Objects.requireNonNull(component, "lines contain null element");
+        }
+        withLock(() -> {
+            checkLineIndexUnsafe(lines.size(), false, true);
+            applyLinesUnsafe(TeamLine.of(lines));
+        });
+    }
+
+    private void applyLinesUnsafe(List<TeamLine> newLines) {
+        List<TeamLine> oldLines = new ArrayList<>(lines);
+
+        lines.clear();
+        lines.addAll(newLines);
+        publishSnapshotUnsafe();
+
+        int[] changedLines = {0};
+        TeamLinePlanner.planLines(oldLines, lines, (step, score) -> changedLines[0]++);
+        metrics.recordUpdates(changedLines[0], Math.max(oldLines.size(), lines.size()) - changedLines[0]);
+
+        for (ViewerGroup group : groups.values()) {
+            broadcast(group, packets -> addLineChangesUnsafe(group, oldLines, packets));
+        }
+    }
+
+    public Component getTitle() {
+        return getSnapshot().title();
+    }
+
+    public void updateTitle(Component title) {
+        Objects.requireNonNull(title, "title");
+        withLock(() -> {
+            if (title.equals(this.title)) {
+                metrics.recordUpdates(0, 1);
+                return;
+            }
+            this.title = title;
+            publishSnapshotUnsafe();
+            metrics.recordUpdates(1, 0);
+
+            for (ViewerGroup group : groups.values()) {
+                broadcast(group, packets -> packets.add(createObjectivePacket(group, UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD)));
+            }
+        });
+    }
+
+    @Since(MINECRAFT_1_20_3)
+    public @Nullable ComponentUtils.NumberFormat getNumberFormat() {
+        return getSnapshot().numberFormat();
+    }
+
+    @Since(MINECRAFT_1_20_3)
+    public void setNumberFormat(@Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
+        withLock(() -> {
+            if (Objects.equals(this.defaultNumberFormat, defaultNumberFormat)) {
+                metrics.recordUpdates(0, 1);
+                return;
+            }
+            this.defaultNumberFormat = defaultNumberFormat;
+            publishSnapshotUnsafe();
+            metrics.recordUpdates(1, 0);
+
+            for (ViewerGroup group : groups.values()) {
+                broadcast(group, packets -> packets.add(createObjectivePacket(group, UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD)));
+            }
+        });
+    }
+
+    @Override
+    GroupKey groupKey(ConnectedPlayer player) {
+        return new GroupKey(player.getProtocolVersion(), player.getEffectiveLocale());
+    }
+
+    @Override
+    ViewerGroup createGroupUnsafe(GroupKey key) {
+        return new ViewerGroup(key);
+    }
+
+    private void checkLineIndexUnsafe(int lineIndex, boolean checkInRange, boolean checkMax) {
+        if (lineIndex < 0) {
+            throw new IllegalArgumentException("Line index must be non-negative");
+        }
+
+        if (checkInRange && lineIndex >= lines.size()) {
+            throw new IllegalArgumentException("Line index must be within the valid range (index >= 0 && index < " + lines.size() + ")");
+        }
+
+        if (checkMax && lineIndex >= MAX_LINES_SIZE) {
+            throw new IllegalArgumentException("Line index " + lineIndex + " must be less than " + MAX_LINES_SIZE + ".");
+        }
+    }
+
+    private static TeamLine getLineByScore(List<TeamLine> lines, int score) {
+        return lines.get(lines.size() - score - 1);
+    }
+
+    /**
+     * Builds the packets once for the group, invalidates its cached full state and writes them to all members.
+     */
+    private void broadcast(ViewerGroup group, Consumer<List<MinecraftPacket>> packetsBuilder) {
+        group.fullState = null;
+
+        List<MinecraftPacket> packets = new ArrayList<>();
+        packetsBuilder.accept(packets);
+        if (packets.isEmpty()) return;
+
+        List<EncodedPacket> encodedPackets = encode(group.key.version(), packets);
+        for (ConnectedPlayer member : group.members) {
+            sendTo(member, encodedPackets);
+        }
+    }
+
+    private static List<EncodedPacket> encode(ProtocolVersion version, List<MinecraftPacket> packets) {
+        List<EncodedPacket> encodedPackets = new ArrayList<>(packets.size());
+        for (MinecraftPacket packet : packets) {
+            encodedPackets.add(EncodedPacket.encode(packet, version));
+        }
+        return encodedPackets;
+    }
+
+    private void addLineChangesUnsafe(ViewerGroup group, List<TeamLine> oldLines, List<MinecraftPacket> packets) {
+        ProtocolVersion version = group.key.version();
+
+        TeamLinePlanner.planLines(oldLines, lines, (step, score) -> {
+            switch (step) {
+                case REMOVE -> {
+                    packets.add(VeloBoard.createTeamPacket(teamNames[score], score, UpdateTeamsPacket.Mode.REMOVE_TEAM, Component.empty()));
+                    packets.add(VeloBoard.createScorePacket(version, id, score, UpdateScorePacket.Action.REMOVE_SCORE));
+                }
+                case CREATE -> {
+                    packets.add(VeloBoard.createScorePacket(version, id, score, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE));
+                    packets.add(VeloBoard.createTeamPacket(teamNames[score], score, UpdateTeamsPacket.Mode.CREATE_TEAM, group.translate(getLineByScore(lines, score))));
+                }
+                case UPDATE -> packets.add(VeloBoard.createTeamPacket(teamNames[score], score, UpdateTeamsPacket.Mode.UPDATE_TEAM_INFO, group.translate(getLineByScore(lines, score))));
+            }
+        });
+    }
+
+    private List<MinecraftPacket> createFullStatePackets(ViewerGroup group) {
+        List<MinecraftPacket> packets = new ArrayList<>();
+        packets.add(createObjectivePacket(group, UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD));
+        packets.add(new DisplayObjectivePacket(1, id));
+        addLineChangesUnsafe(group, List.of(), packets);
+        return packets;
+    }
+
+    private List<MinecraftPacket> createRemovePackets(ProtocolVersion version) {
+        List<MinecraftPacket> packets = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            packets.add(VeloBoard.createTeamPacket(teamNames[i], i, UpdateTeamsPacket.Mode.REMOVE_TEAM, Component.empty()));
+        }
+
+        packets.add(new UpdateObjectivesPacket(
+                id,
+                UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD,
+                Component.empty(),
+                UpdateObjectivesPacket.Type.INTEGER,
+                null
+        ));
+        return packets;
+    }
+
+    private MinecraftPacket createObjectivePacket(ViewerGroup group, UpdateObjectivesPacket.Mode mode) {
+        return new UpdateObjectivesPacket(
+                id,
+                mode,
+                group.translate(title),
+                UpdateObjectivesPacket.Type.INTEGER,
+                ComponentCache.numberFormat(group.key.version(), defaultNumberFormat)
+        );
+    }
+
+    private void publishSnapshotUnsafe() {
+        snapshot = new BoardSnapshot<>(snapshot.version() + 1, title, TeamLine.components(lines), defaultNumberFormat);
+    }
+
+    record GroupKey(ProtocolVersion version, @Nullable Locale locale) {}
+
+    static class ViewerGroup extends MultiViewerBoard.ViewerGroup<GroupKey> {
+
+        private @Nullable List<EncodedPacket> fullState;
+
+        private ViewerGroup(GroupKey key) {
+            super(key);
+        }
+
+        /**
+         * Translates the component once for all members, as they share the same locale.
+         */
+        private Component translate(Component component) {
+            return TranslationCache.translate(members.get(0), component);
+        }
+
+        private Component translate(TeamLine line) {
+            return line.translated(members.get(0));
+        }
+
+        private List<EncodedPacket> getFullState(BroadcastBoard board) {
+            if (fullState == null) {
+                fullState = encode(key.version(), board.createFullStatePackets(this));
+            }
+            return fullState;
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.utils.LruCache;
+import de.timongcraft.veloboard.utils.WeakInterner;
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A process-wide cache of the compiled forms of components and number formats, shared by all boards.
+ *
+ * <p>A {@link ComponentHolder} keeps its serialized (JSON or NBT) form once it has been written,
+ * so sharing the holder of a line like {@code "Online: 1234"} across boards means it is only serialized once per protocol version.
+ * Holders evicted from the cache stay canonical while boards still show them, so a line never has two encoded forms at once.
+ */
+@SuppressWarnings("unused")
+public final class ComponentCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 8192;
+
+    /**
+     * The holders of components ({@link Key}) and of filled templates ({@link FilledKey}).
+     */
+    private static final LruCache<Object, ComponentHolder> HOLDERS = new LruCache<>(DEFAULT_MAXIMUM_SIZE);
+    /**
+     * The holders still referenced (by boards or the cache), so that a holder loaded again after its eviction is the same instance.
+     */
+    private static final WeakInterner<Object, ComponentHolder> LIVE_HOLDERS = new WeakInterner<>((a, b) -> true);
+    private static final LruCache<FormatKey, ComponentUtils.NumberFormat> NUMBER_FORMATS = new LruCache<>(DEFAULT_MAXIMUM_SIZE / 8);
+
+    /**
+     * Returns the shared holder of the (already translated) component for the protocol version.
+     */
+    public static ComponentHolder holder(ProtocolVersion version, Component component) {
+        Objects.requireNonNull(component, "component");
+        return holder(version, component, ComponentFingerprint.of(component));
+    }
+
+    /**
+     * Like {@link #holder(ProtocolVersion, Component)}, but with the fingerprint computed once when the line was set.
+     */
+    static ComponentHolder holder(ProtocolVersion version, Component component, long fingerprint) {
+        Key key = new Key(component, fingerprint, version);
+        return HOLDERS.get(key, k -> LIVE_HOLDERS.intern(k, unused -> new ComponentHolder(version, component)));
+    }
+
+    /**
+     * Returns the shared holder of a {@link LineTemplate} compiled for a protocol version (and locale) with its slots filled.
+     *
+     * @param splicer serializes the filled template, if its holder isn't shared yet
+     */
+    static ComponentHolder filledHolder(Object compiledTemplate, String[] values, Function<String[], ComponentHolder> splicer) {
+        FilledKey key = new FilledKey(compiledTemplate, List.of(values));
+        return HOLDERS.get(key, k -> LIVE_HOLDERS.intern(k, unused -> splicer.apply(values)));
+    }
+
+    /**
+     * Returns the shared compiled form of the number format for the protocol version.
+     */
+    public static ComponentUtils.@Nullable NumberFormat numberFormat(ProtocolVersion version, @Nullable ComponentUtils.NumberFormat format) {
+        if (format == null) return null;
+        return NUMBER_FORMATS.get(new FormatKey(format, version), key -> key.format().compiled(key.version()));
+    }
+
+    /**
+     * Sets the maximum amount of cached component holders.
+     */
+    public static void setMaximumSize(int maximumSize) {
+        HOLDERS.setMaximumSize(maximumSize);
+    }
+
+    public static void clear() {
+        HOLDERS.clear();
+        NUMBER_FORMATS.clear();
+    }
+
+    public static Stats stats() {
+        return new Stats(HOLDERS.hits(), HOLDERS.misses(), HOLDERS.evictions(), HOLDERS.size());
+    }
+
+    /**
+     * @return the amount of distinct holders alive, whether cached or only referenced by boards
+     */
+    public static int liveHolders() {
+        return LIVE_HOLDERS.size();
+    }
+
+    public static Stats numberFormatStats() {
+        return new Stats(NUMBER_FORMATS.hits(), NUMBER_FORMATS.misses(), NUMBER_FORMATS.evictions(), NUMBER_FORMATS.size());
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+    }
+
+    /**
+     * Hashed by the fingerprint instead of the component, which would walk the whole component on every lookup.
+     * The components are only compared if the fingerprints match.
+     */
+    private record Key(Component component, long fingerprint, ProtocolVersion version) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key &&
+                    fingerprint == key.fingerprint &&
+                    version == key.version &&
+                    (component == key.component || component.equals(key.component));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(fingerprint) + version.hashCode();
+        }
+
+    }
+
+    private record FormatKey(ComponentUtils.NumberFormat format, ProtocolVersion version) {}
+
+    /**
+     * A compiled template (by identity) with the values of its slots.
+     */
+    private record FilledKey(Object compiledTemplate, List<String> values) {}
+
+    private ComponentCache() {}
+
+}
@@ -0,0 +1,153 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.TranslationArgument;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Computes 64-bit fingerprints of the content of components, so that lines can be compared with a single {@code long}
+ * comparison instead of walking both component trees with {@link Component#equals(Object)}.
+ *
+ * <p>Texts, translation keys and arguments, colors and decorations are hashed exactly (FNV-1a over every character);
+ * the remaining style (click and hover events, fonts, insertions) and rare component types contribute their {@code hashCode()}.
+ * Number formats are hashed by their encoded form.
+ *
+ * <p>The fingerprints of filled {@link LineTemplate templates} are a separate domain: they are computed from the template's
+ * fingerprint and the values, without building the filled component, so they never equal the fingerprint of that component.
+ * A line changing between a template and an equal component is therefore sent again, but a changed line is never missed.
+ */
+final class ComponentFingerprint {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    /**
+     * The hashes of the number formats by instance, as formats may hash by identity.
+     */
+    private static final Map<ComponentUtils.NumberFormat, Long> FORMAT_HASHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    static long of(Component component) {
+        return finish(feed(OFFSET_BASIS, component));
+    }
+
+    static long of(Component component, ComponentUtils.@Nullable NumberFormat format) {
+        return finish(mix(feed(OFFSET_BASIS, component), format != null ? hash(format) : -1));
+    }
+
+    /**
+     * @return the fingerprint of a filled {@link LineTemplate}, from the fingerprint of the template and the values of its slots,
+     * only comparable to the fingerprints of other filled templates
+     */
+    static long of(long templateFingerprint, String[] values) {
+        long hash = mix(OFFSET_BASIS, templateFingerprint);
+        for (String value : values) {
+            hash = feed(hash, value);
+        }
+        return finish(hash);
+    }
+
+    private static long feed(long hash, Component component) {
+        if (component instanceof TextComponent text) {
+            hash = feed(mix(hash, 1), text.content());
+        } else if (component instanceof TranslatableComponent translatable) {
+            hash = feed(mix(hash, 2), translatable.key());
+            hash = feed(hash, translatable.fallback());
+            List<TranslationArgument> arguments = translatable.arguments();
+            hash = mix(hash, arguments.size());
+            for (TranslationArgument argument : arguments) {
+                hash = argument.value() instanceof Component argumentComponent ?
+                        feed(hash, argumentComponent) :
+                        feed(hash, String.valueOf(argument.value()));
+            }
+        } else {
+            hash = mix(feed(mix(hash, 3), component.getClass().getName()), component.hashCode());
+        }
+
+        hash = feed(hash, component.style());
+
+        List<Component> children = component.children();
+        hash = mix(hash, children.size());
+        for (Component child : children) {
+            hash = feed(hash, child);
+        }
+        return hash;
+    }
+
+    private static long feed(long hash, Style style) {
+        TextColor color = style.color();
+        hash = mix(hash, color != null ? color.value() : -1);
+        for (TextDecoration decoration : DECORATIONS) {
+            hash = mix(hash, style.decoration(decoration).ordinal());
+        }
+        return mix(hash, style.hashCode());
+    }
+
+    private static long feed(long hash, @Nullable String value) {
+        if (value == null) return mix(hash, -1);
+
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes the number format by its encoded form, which is all the client gets of it.
+     */
+    private static long hash(ComponentUtils.NumberFormat format) {
+        Long cachedHash = FORMAT_HASHES.get(format);
+        if (cachedHash != null) return cachedHash;
+
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            new UpdateScorePacket("", "", 0, new ComponentHolder(ProtocolVersion.MAXIMUM_VERSION, Component.empty()), format)
+                    .encode(buf, ProtocolUtils.Direction.CLIENTBOUND, ProtocolVersion.MAXIMUM_VERSION);
+
+            long hash = OFFSET_BASIS;
+            for (int i = buf.readerIndex(); i < buf.writerIndex(); i++) {
+                hash = mix(hash, buf.getByte(i));
+            }
+            FORMAT_HASHES.put(format, hash);
+            return hash;
+        } finally {
+            buf.release();
+        }
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * PRIME;
+    }
+
+    /**
+     * Spreads the bits of the hash (the finalizer of MurmurHash3), as FNV-1a leaves the last inputs in the low bits.
+     */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private ComponentFingerprint() {}
+
+}
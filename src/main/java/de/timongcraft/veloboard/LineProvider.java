@@ -0,0 +1,62 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.proxy.Player;
+import net.kyori.adventure.text.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Provides the content of a line, re-evaluated at most once per refresh interval.
+ *
+ * @see AbstractBoard#setLineProviders(java.util.List)
+ */
+@SuppressWarnings("unused")
+public final class LineProvider {
+
+    private final Function<Player, Component> function;
+    private final long refreshIntervalNanos;
+
+    private LineProvider(Function<Player, Component> function, long refreshIntervalNanos) {
+        this.function = function;
+        this.refreshIntervalNanos = refreshIntervalNanos;
+    }
+
+    /**
+     * A line that never changes.
+     */
+    public static LineProvider constant(Component component) {
+        Objects.requireNonNull(component, "component");
+        return new LineProvider(player -> component, Long.MAX_VALUE);
+    }
+
+    public static LineProvider of(Supplier<Component> supplier, Duration refreshInterval) {
+        Objects.requireNonNull(supplier, "supplier");
+        return of(player -> supplier.get(), refreshInterval);
+    }
+
+    /**
+     * @param function        computes the line for the player of the board
+     * @param refreshInterval the minimum time between two evaluations, {@link Duration#ZERO} to evaluate on every refresh
+     */
+    public static LineProvider of(Function<Player, Component> function, Duration refreshInterval) {
+        Objects.requireNonNull(function, "function");
+        Objects.requireNonNull(refreshInterval, "refreshInterval");
+        if (refreshInterval.isNegative()) {
+            throw new IllegalArgumentException("Refresh interval must be non-negative");
+        }
+
+        return new LineProvider(function, refreshInterval.toNanos());
+    }
+
+    Component provide(Player player) {
+        return Objects.requireNonNull(function.apply(player), "Line provider returned null");
+    }
+
+    long getRefreshIntervalNanos() {
+        return refreshIntervalNanos;
+    }
+
+}
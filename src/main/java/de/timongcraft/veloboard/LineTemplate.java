@@ -0,0 +1,322 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import net.kyori.adventure.nbt.BinaryTag;
+import net.kyori.adventure.nbt.CompoundBinaryTag;
+import net.kyori.adventure.nbt.ListBinaryTag;
+import net.kyori.adventure.nbt.StringBinaryTag;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.jetbrains.annotations.Nullable;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
+
+/**
+ * An immutable line with named slots for values, like {@code "Coins: <coins>"}, usable as a line of a board.
+ *
+ * <p>On 1.20.3+ clients, the static parts of the line are serialized once per protocol version and shared by all boards.
+ * Filling the slots splices the values into the serialized form, so updating a value never serializes the whole line again.
+ * Older clients get the filled line serialized as a whole, as lines are sent to them as team prefixes.
+ *
+ * <p>Slots are created with {@link #slot(String)} and may be styled: the style applies to the value, which is inserted as plain text.
+ * Example:
+ * <pre>{@code
+ * LineTemplate coins = LineTemplate.compile(Component.text("Coins: ", NamedTextColor.GOLD)
+ *         .append(LineTemplate.slot("coins").color(NamedTextColor.WHITE)));
+ * board.setLine(0, coins, Map.of("coins", 1234));
+ * }</pre>
+ *
+ * @see SimpleBoard#setLine(int, LineTemplate, Map)
+ * @see VeloBoard#updateLine(int, LineTemplate, Map)
+ */
+@SuppressWarnings("unused")
+public final class LineTemplate {
+
+    private static final Pattern SLOT_NAME = Pattern.compile("[a-z0-9_]+");
+    /**
+     * Marks the slots in the template, random per process so that it can't clash with the static text.
+     */
+    private static final String SLOT_PREFIX = "veloboard-slot-" + Long.toHexString(new SecureRandom().nextLong()) + "-";
+    private static final String SLOT_SUFFIX = "-";
+
+    private final Component template;
+    private final List<String> slots;
+    private final long fingerprint;
+    private final boolean translatable;
+    private final Map<CompiledKey, Compiled> compiled = new ConcurrentHashMap<>();
+
+    private LineTemplate(Component template) {
+        List<String> slots = new ArrayList<>();
+        collectSlots(template, slots);
+
+        this.template = template;
+        this.slots = List.copyOf(slots);
+        this.fingerprint = ComponentFingerprint.of(template);
+        this.translatable = TranslationCache.containsTranslatable(template);
+    }
+
+    /**
+     * @param template the line, containing the slots created by {@link #slot(String)}
+     * @throws IllegalArgumentException if a slot is used more than once
+     */
+    public static LineTemplate compile(Component template) {
+        Objects.requireNonNull(template, "template");
+        return new LineTemplate(template);
+    }
+
+    /**
+     * Creates the placeholder of a slot, to be used in the component passed to {@link #compile(Component)}.
+     *
+     * @param name the name of the slot, consisting of lowercase letters, digits and underscores
+     */
+    public static TextComponent slot(String name) {
+        Objects.requireNonNull(name, "name");
+        if (!SLOT_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Slot name must consist of lowercase letters, digits and underscores: " + name);
+        }
+
+        return Component.text(SLOT_PREFIX + name + SLOT_SUFFIX);
+    }
+
+    public Component getTemplate() {
+        return template;
+    }
+
+    /**
+     * @return the names of the slots, in the order they appear in the template
+     */
+    public List<String> getSlots() {
+        return slots;
+    }
+
+    /**
+     * Builds the component of the line with the slots filled, without serializing it.
+     */
+    public Component fill(Map<String, ?> values) {
+        return fill(values(values));
+    }
+
+    /**
+     * @return the values of the slots, in the order of {@link #getSlots()}
+     * @throws IllegalArgumentException if a slot has no value or a value has no slot
+     */
+    String[] values(Map<String, ?> values) {
+        Objects.requireNonNull(values, "values");
+        String[] slotValues = new String[slots.size()];
+        for (int i = 0; i < slotValues.length; i++) {
+            String slot = slots.get(i);
+            if (!values.containsKey(slot)) {
+                throw new IllegalArgumentException("Missing value for slot " + slot);
+            }
+            slotValues[i] = String.valueOf(values.get(slot));
+        }
+
+        if (values.size() != slotValues.length) {
+            for (String slot : values.keySet()) {
+                if (!slots.contains(slot)) {
+                    throw new IllegalArgumentException("Unknown slot " + slot);
+                }
+            }
+        }
+        return slotValues;
+    }
+
+    boolean isTranslatable() {
+        return translatable;
+    }
+
+    long fingerprint(String[] values) {
+        return ComponentFingerprint.of(fingerprint, values);
+    }
+
+    Component fill(String[] values) {
+        return fill(template, values);
+    }
+
+    /**
+     * Returns the line serialized for the player with the slots filled, translated in the player's locale if needed.
+     * The template is compiled for the protocol version (and locale) on first use.
+     */
+    ComponentHolder holder(ConnectedPlayer player, String[] values) {
+        Locale locale = translatable ? player.getEffectiveLocale() : null;
+        Compiled compiledTemplate = compiled.computeIfAbsent(
+                new CompiledKey(player.getProtocolVersion(), locale),
+                key -> compile(key.version(), translatable ? TranslationCache.translate(player, template) : template)
+        );
+        return compiledTemplate.holder(values);
+    }
+
+    private Compiled compile(ProtocolVersion version, Component translatedTemplate) {
+        // team prefixes (before 1.20.3) are sent as components, so the line is serialized as a whole
+        if (version.lessThan(MINECRAFT_1_20_3)) {
+            return values -> ComponentCache.holder(version, fill(translatedTemplate, values));
+        }
+
+        BinaryTag tag = new ComponentHolder(version, translatedTemplate).getBinaryTag();
+        Object[][] paths = new Object[slots.size()][];
+        for (int i = 0; i < paths.length; i++) {
+            List<Object> path = new ArrayList<>();
+            if (!locate(tag, marker(slots.get(i)), path)) {
+                throw new IllegalArgumentException("Slot " + slots.get(i) + " couldn't be located in the serialized template");
+            }
+            paths[i] = path.toArray();
+        }
+        return new NbtTemplate(version, tag, paths);
+    }
+
+    private static void collectSlots(Component component, List<String> slots) {
+        String slot = slotOf(component);
+        if (slot != null) {
+            if (slots.contains(slot)) {
+                throw new IllegalArgumentException("Slot " + slot + " is used more than once");
+            }
+            slots.add(slot);
+        }
+
+        for (Component child : component.children()) {
+            collectSlots(child, slots);
+        }
+    }
+
+    private Component fill(Component component, String[] values) {
+        Component filled = component;
+        String slot = slotOf(component);
+        if (slot != null) {
+            filled = ((TextComponent) component).content(values[slots.indexOf(slot)]);
+        }
+
+        List<Component> children = component.children();
+        if (children.isEmpty()) return filled;
+
+        List<Component> filledChildren = new ArrayList<>(children.size());
+        boolean changed = false;
+        for (Component child : children) {
+            Component filledChild = fill(child, values);
+            filledChildren.add(filledChild);
+            changed |= filledChild != child;
+        }
+        return changed ? filled.children(filledChildren) : filled;
+    }
+
+    private static @Nullable String slotOf(Component component) {
+        if (!(component instanceof TextComponent text)) return null;
+
+        String content = text.content();
+        if (!content.startsWith(SLOT_PREFIX) || !content.endsWith(SLOT_SUFFIX) || content.length() <= SLOT_PREFIX.length() + SLOT_SUFFIX.length()) {
+            return null;
+        }
+        return content.substring(SLOT_PREFIX.length(), content.length() - SLOT_SUFFIX.length());
+    }
+
+    private static String marker(String slot) {
+        return SLOT_PREFIX + slot + SLOT_SUFFIX;
+    }
+
+    /**
+     * Finds the string tag with the value, recording the keys and indices leading to it.
+     */
+    private static boolean locate(BinaryTag tag, String value, List<Object> path) {
+        if (tag instanceof StringBinaryTag string) {
+            return string.value().equals(value);
+        }
+
+        if (tag instanceof CompoundBinaryTag compound) {
+            for (String key : compound.keySet()) {
+                path.add(key);
+                if (locate(Objects.requireNonNull(compound.get(key)), value, path)) return true;
+                path.remove(path.size() - 1);
+            }
+        } else if (tag instanceof ListBinaryTag list) {
+            for (int i = 0; i < list.size(); i++) {
+                path.add(i);
+                if (locate(list.get(i), value, path)) return true;
+                path.remove(path.size() - 1);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the tag at the path, copying only the compounds and lists along the path.
+     */
+    private static BinaryTag splice(BinaryTag tag, Object[] path, int depth, BinaryTag value) {
+        if (depth == path.length) return value;
+
+        if (path[depth] instanceof String key) {
+            CompoundBinaryTag compound = (CompoundBinaryTag) tag;
+            return compound.put(key, splice(Objects.requireNonNull(compound.get(key)), path, depth + 1, value));
+        }
+
+        ListBinaryTag list = (ListBinaryTag) tag;
+        int index = (Integer) path[depth];
+        List<BinaryTag> elements = new ArrayList<>(list.size());
+        for (BinaryTag element : list) {
+            elements.add(element);
+        }
+        elements.set(index, splice(list.get(index), path, depth + 1, value));
+        return ListBinaryTag.from(elements);
+    }
+
+    @FunctionalInterface
+    private interface Compiled {
+
+        ComponentHolder holder(String[] values);
+
+    }
+
+    /**
+     * The serialized template with the paths to the string tags of the slots.
+     */
+    private static final class NbtTemplate implements Compiled {
+
+        private final ProtocolVersion version;
+        private final BinaryTag tag;
+        private final Object[][] paths;
+
+        private NbtTemplate(ProtocolVersion version, BinaryTag tag, Object[][] paths) {
+            this.version = version;
+            this.tag = tag;
+            this.paths = paths;
+        }
+
+        @Override
+        public ComponentHolder holder(String[] values) {
+            return ComponentCache.filledHolder(this, values, this::splice);
+        }
+
+        private ComponentHolder splice(String[] values) {
+            BinaryTag filled = tag;
+            for (int i = 0; i < paths.length; i++) {
+                filled = LineTemplate.splice(filled, paths[i], 0, StringBinaryTag.stringBinaryTag(values[i]));
+            }
+            return new ComponentHolder(version, filled);
+        }
+
+    }
+
+    private record CompiledKey(ProtocolVersion version, @Nullable Locale locale) {}
+
+    /**
+     * A template with the values of its slots, as stored by boards using a team per line.
+     */
+    record Filled(LineTemplate template, String[] values) implements TeamLine.Source {
+
+        @Override
+        public ComponentHolder holder(ConnectedPlayer player) {
+            return template.holder(player, values);
+        }
+
+    }
+
+}
@@ -3,23 +3,40 @@ package de.timongcraft.veloboard;
 import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.utils.WeakInterner;
 import de.timongcraft.velopacketimpl.utils.ComponentUtils;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.Nullable;
 
 public class LinesEntry {
 
+    /**
+     * The flyweights of the lines of compact boards. Holders are canonical per component and protocol version
+     * while they are alive (see {@link ComponentCache}), so they identify the content along with the format.
+     */
+    private static final WeakInterner<FlyweightKey, LinesEntry> FLYWEIGHTS = new WeakInterner<>(LinesEntry::isSame);
+
     private final ComponentHolder holder;
     private final ComponentUtils.@Nullable NumberFormat format;
+    /**
+     * The fingerprint of the component and the number format, see {@link ComponentFingerprint}.
+     */
+    private final long fingerprint;
 
     LinesEntry(ComponentHolder holder, @Nullable ComponentUtils.NumberFormat format) {
+        this(holder, format, ComponentFingerprint.of(holder.getComponent(), format));
+    }
+
+    LinesEntry(ComponentHolder holder, @Nullable ComponentUtils.NumberFormat format, long fingerprint) {
         this.holder = holder;
         this.format = format;
+        this.fingerprint = fingerprint;
     }
 
     public LinesEntry(Component component, @Nullable ComponentUtils.NumberFormat format, Player player) {
-        this.holder = new ComponentHolder(player.getProtocolVersion(), component);
+        this.holder = ComponentCache.holder(player.getProtocolVersion(), component);
         this.format = format;
+        this.fingerprint = ComponentFingerprint.of(component, format);
     }
 
     ComponentHolder getHolder() {
@@ -34,8 +51,28 @@ public class LinesEntry {
         return format;
     }
 
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return whether both lines show the same content, compared by their fingerprints
+     */
+    boolean isSame(LinesEntry other) {
+        return fingerprint == other.fingerprint;
+    }
+
+    /**
+     * @return the flyweight of the line, shared by all compact boards showing the same line
+     */
+    LinesEntry intern() {
+        return FLYWEIGHTS.intern(new FlyweightKey(holder, format), this);
+    }
+
     ComponentUtils.@Nullable NumberFormat formatCompiled(ProtocolVersion version) {
-        return format != null ? format.compiled(version) : null;
+        return ComponentCache.numberFormat(version, format);
     }
 
-}
\ No newline at end of file
+    private record FlyweightKey(ComponentHolder holder, ComponentUtils.@Nullable NumberFormat format) {}
+
+}
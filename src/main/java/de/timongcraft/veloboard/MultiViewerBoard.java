@@ -0,0 +1,181 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The viewers, locking and writing shared by the boards shown to many players ({@link BroadcastBoard}, {@link SharedObjective}).
+ *
+ * <p>Viewers are grouped by a key (like their protocol version), so that packets can be encoded once per group.
+ *
+ * @param <K> the key of the groups
+ * @param <G> the groups
+ */
+abstract class MultiViewerBoard<K, G extends MultiViewerBoard.ViewerGroup<K>> {
+
+    final String id;
+    final BoardMetrics metrics;
+    private final Lock lock = new ReentrantLock();
+    /**
+     * The viewers by their UUID, with the connection they were added with.
+     */
+    final Map<UUID, ConnectedPlayer> viewers = new HashMap<>();
+    final Map<K, G> groups = new LinkedHashMap<>();
+    private volatile boolean deleted = false;
+
+    MultiViewerBoard(String id) {
+        this.id = id;
+        this.metrics = BoardMetrics.create(id);
+    }
+
+    @Unmodifiable
+    public List<Player> getViewers() {
+        return withLock(() -> List.copyOf(viewers.values()));
+    }
+
+    public boolean isViewer(Player player) {
+        return withLock(() -> viewers.containsKey(player.getUniqueId()));
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public BoardMetrics getMetrics() {
+        return metrics;
+    }
+
+    abstract K groupKey(ConnectedPlayer player);
+
+    abstract G createGroupUnsafe(K key);
+
+    /**
+     * Adds the player as a viewer and to their group. A viewer whose connection is no longer active (the player reconnected
+     * without being removed) is replaced by the new connection.
+     *
+     * @return the group of the player, or {@code null} if the player already is a viewer
+     */
+    @Nullable G addViewerUnsafe(ConnectedPlayer player) {
+        ConnectedPlayer viewer = viewers.get(player.getUniqueId());
+        if (viewer != null) {
+            if (viewer.isActive()) return null;
+
+            removeFromGroupUnsafe(viewer);
+        }
+
+        viewers.put(player.getUniqueId(), player);
+        return addToGroupUnsafe(player);
+    }
+
+    /**
+     * @return the connection the player was added with, or {@code null} if the player was not a viewer
+     */
+    @Nullable ConnectedPlayer removeViewerUnsafe(Player player) {
+        ConnectedPlayer viewer = viewers.remove(player.getUniqueId());
+        if (viewer != null) {
+            removeFromGroupUnsafe(viewer);
+        }
+        return viewer;
+    }
+
+    G addToGroupUnsafe(ConnectedPlayer player) {
+        G group = groups.computeIfAbsent(groupKey(player), this::createGroupUnsafe);
+        group.members.add(player);
+        return group;
+    }
+
+    void removeFromGroupUnsafe(ConnectedPlayer player) {
+        groups.values().removeIf(group -> group.members.removeIf(member -> member.getUniqueId().equals(player.getUniqueId()))
+                && group.members.isEmpty());
+    }
+
+    /**
+     * Stops tracking all viewers and marks the board as deleted. The viewers have to be sent the removal before.
+     */
+    void deleteUnsafe() {
+        for (ConnectedPlayer viewer : viewers.values()) {
+            BoardResync.untrack(viewer, this);
+        }
+        viewers.clear();
+        groups.clear();
+        deleted = true;
+        metrics.exportSnapshot();
+    }
+
+    void sendTo(ConnectedPlayer player, List<EncodedPacket> packets) {
+        if (!player.isActive() || packets.isEmpty()) return;
+
+        MinecraftConnection connection = player.getConnection();
+        for (EncodedPacket packet : packets) {
+            long start = System.nanoTime();
+            connection.delayedWrite(packet.messageFor(connection));
+            metrics.recordPacket(packet.getPacket().getClass(), packet.size(), System.nanoTime() - start);
+        }
+        connection.flush();
+        metrics.recordFlush();
+    }
+
+    void withLock(Runnable action) {
+        lockMeasured();
+        try {
+            checkNotDeleted();
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    <T> T withLock(Supplier<T> action) {
+        lockMeasured();
+        try {
+            checkNotDeleted();
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void lockMeasured() {
+        if (lock.tryLock()) return;
+
+        long start = System.nanoTime();
+        lock.lock();
+        metrics.recordLockWait(System.nanoTime() - start);
+    }
+
+    void checkNotDeleted() {
+        if (deleted) {
+            throw new IllegalStateException("This " + getClass().getSimpleName() + " is deleted");
+        }
+    }
+
+    static class ViewerGroup<K> {
+
+        final K key;
+        final List<ConnectedPlayer> members = new ArrayList<>();
+
+        ViewerGroup(K key) {
+            this.key = key;
+        }
+
+    }
+
+}
@@ -0,0 +1,69 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.proxy.Player;
+import net.kyori.adventure.text.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state of the line providers of a board: the last value, its fingerprint and the next due time of each line.
+ *
+ * <p>The providers are evaluated without holding the board's lock, as they may be slow. Evaluations are serialized
+ * by synchronizing on this object, which the board does around evaluating and applying the values.
+ */
+final class ProvidedLines {
+
+    private final LineProvider[] providers;
+    private final Component[] values;
+    private final long[] fingerprints;
+    private final long[] nextRefreshNanos;
+
+    ProvidedLines(List<LineProvider> providers) {
+        this.providers = providers.toArray(LineProvider[]::new);
+        this.values = new Component[this.providers.length];
+        this.fingerprints = new long[this.providers.length];
+        this.nextRefreshNanos = new long[this.providers.length];
+    }
+
+    List<Component> evaluateAll(Player player, long nowNanos) {
+        for (int i = 0; i < providers.length; i++) {
+            evaluate(player, i, nowNanos);
+        }
+        return Arrays.asList(values.clone());
+    }
+
+    /**
+     * Evaluates all due providers.
+     *
+     * @return the lines whose value changed, compared by their fingerprints
+     */
+    List<ChangedLine> refreshDue(Player player, long nowNanos) {
+        List<ChangedLine> changedLines = new ArrayList<>();
+        for (int i = 0; i < providers.length; i++) {
+            if (nowNanos - nextRefreshNanos[i] < 0) continue;
+
+            long oldFingerprint = fingerprints[i];
+            Component newValue = evaluate(player, i, nowNanos);
+            if (fingerprints[i] != oldFingerprint) {
+                changedLines.add(new ChangedLine(i, newValue));
+            }
+        }
+        return changedLines;
+    }
+
+    private Component evaluate(Player player, int index, long nowNanos) {
+        LineProvider provider = providers[index];
+        values[index] = provider.provide(player);
+        fingerprints[index] = ComponentFingerprint.of(values[index]);
+
+        long interval = provider.getRefreshIntervalNanos();
+        // a constant provider is never due again; wrap-around safe comparison needs a distance below Long.MAX_VALUE
+        nextRefreshNanos[index] = nowNanos + (interval == Long.MAX_VALUE ? Long.MAX_VALUE / 2 : interval);
+        return values[index];
+    }
+
+    record ChangedLine(int lineIndex, Component line) {}
+
+}
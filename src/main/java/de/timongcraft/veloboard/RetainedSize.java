@@ -0,0 +1,78 @@
+package de.timongcraft.veloboard;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.TranslationArgument;
+
+import java.util.List;
+
+/**
+ * Estimates the memory retained by the state of boards, assuming a 64-bit JVM with compressed references.
+ *
+ * <p>The estimates follow the object layouts of the JDK and Adventure closely enough to compare boards and storage modes,
+ * but they are no exact measurement: shared objects (like the empty style) aren't counted, and padding is approximated.
+ */
+final class RetainedSize {
+
+    static final int REFERENCE = 4;
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    /**
+     * A non-empty style: its color, decorations, events, font and insertion.
+     */
+    private static final long STYLE = object(11, 0);
+
+    static long object(int referenceFields, int primitiveBytes) {
+        return align(OBJECT_HEADER + (long) referenceFields * REFERENCE + primitiveBytes);
+    }
+
+    static long array(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    /**
+     * @return the size of an {@link java.util.ArrayList} or an immutable list with the size, without its elements
+     */
+    static long list(int size) {
+        return object(1, 8) + array(size, REFERENCE);
+    }
+
+    static long string(String value) {
+        return object(1, 8) + array(value.length(), 1);
+    }
+
+    static long component(Component component) {
+        long size = object(3, 0);
+        if (component instanceof TextComponent text) {
+            size += string(text.content());
+        } else if (component instanceof TranslatableComponent translatable) {
+            size += string(translatable.key());
+            if (translatable.fallback() != null) size += string(translatable.fallback());
+
+            List<TranslationArgument> arguments = translatable.arguments();
+            if (!arguments.isEmpty()) size += list(arguments.size());
+            for (TranslationArgument argument : arguments) {
+                size += object(1, 0) + (argument.value() instanceof Component argumentComponent ?
+                        component(argumentComponent) :
+                        string(String.valueOf(argument.value())));
+            }
+        }
+
+        if (!component.style().isEmpty()) size += STYLE;
+
+        List<Component> children = component.children();
+        if (!children.isEmpty()) size += list(children.size());
+        for (Component child : children) {
+            size += component(child);
+        }
+        return size;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private RetainedSize() {}
+
+}
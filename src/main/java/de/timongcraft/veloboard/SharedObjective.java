@@ -0,0 +1,388 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import de.timongcraft.velopacketimpl.utils.annotations.Since;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.Unmodifiable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_2;
+import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
+
+/**
+ * A score objective shown to many players, typically in the player list or below the names, where every viewer sees
+ * the score of every other player.
+ *
+ * <p>All viewers share one score table. Every score change is encoded once per protocol version and written to all viewers
+ * of that version; changes made in a {@link #batch(Consumer) batch} are flushed once per viewer.
+ * A joining viewer gets the objective and the already encoded table, a leaving viewer only the removal of the objective;
+ * the other viewers are not affected.
+ *
+ * <p><b>Note</b>: A display slot shows a single objective, so a player should only view one objective per slot.
+ */
+@SuppressWarnings("unused")
+public class SharedObjective extends MultiViewerBoard<ProtocolVersion, SharedObjective.ViewerGroup> {
+
+    private static final String OBJECTIVE_IDENTIFIER = "veloboard:objective";
+    private static final AtomicInteger OBJECTIVE_COUNTER = new AtomicInteger();
+
+    private final DisplaySlot slot;
+    private final UpdateObjectivesPacket.Type type;
+    private final Map<String, Integer> scores = new LinkedHashMap<>();
+    private Component title;
+    @Since(MINECRAFT_1_20_3)
+    private @Nullable ComponentUtils.NumberFormat numberFormat;
+    private int batchDepth = 0;
+    private boolean objectiveChanged = false;
+
+    public SharedObjective(DisplaySlot slot, Component title) {
+        this(slot, title, UpdateObjectivesPacket.Type.INTEGER, null);
+    }
+
+    /**
+     * @param type how the client renders the scores, only used in the player list
+     */
+    public SharedObjective(DisplaySlot slot, Component title, UpdateObjectivesPacket.Type type, @Nullable ComponentUtils.NumberFormat numberFormat) {
+        super(OBJECTIVE_IDENTIFIER + ":" + OBJECTIVE_COUNTER.getAndIncrement());
+        this.slot = Objects.requireNonNull(slot, "slot");
+        this.title = Objects.requireNonNull(title, "title");
+        this.type = Objects.requireNonNull(type, "type");
+        this.numberFormat = numberFormat;
+    }
+
+    /**
+     * Adds the player as a viewer and sends the objective with all scores to them.
+     * A viewer that reconnected without being removed is replaced by their new connection.
+     *
+     * @return false if the player already is a viewer
+     */
+    public boolean addViewer(Player player) {
+        Objects.requireNonNull(player, "player");
+        return withLock(() -> {
+            ConnectedPlayer connectedPlayer = (ConnectedPlayer) player;
+            ViewerGroup group = addViewerUnsafe(connectedPlayer);
+            if (group == null) {
+                return false;
+            }
+
+            sendFullStateUnsafe(connectedPlayer, group, false);
+            BoardResync.track(player, this);
+            return true;
+        });
+    }
+
+    /**
+     * Removes the player as a viewer and removes the objective from their client.
+     *
+     * @return false if the player was not a viewer
+     */
+    public boolean removeViewer(Player player) {
+        Objects.requireNonNull(player, "player");
+        return withLock(() -> {
+            ConnectedPlayer connectedPlayer = removeViewerUnsafe(player);
+            if (connectedPlayer == null) {
+                return false;
+            }
+
+            BoardResync.untrack(player, this);
+            sendTo(connectedPlayer, List.of(EncodedPacket.encode(createObjectivePacket(connectedPlayer, UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD), connectedPlayer.getProtocolVersion())));
+            return true;
+        });
+    }
+
+    /**
+     * Shows the objective again to the viewer after their client forgot it, which clients since 1.20.2 do when the player
+     * switches the backend server. Older clients keep it, so it is removed and sent again instead.
+     */
+    public void resync(Player player) {
+        Objects.requireNonNull(player, "player");
+        withLock(() -> {
+            ConnectedPlayer connectedPlayer = viewers.get(player.getUniqueId());
+            if (connectedPlayer == null) {
+                throw new IllegalArgumentException("Player " + player.getUsername() + " is not a viewer of this objective");
+            }
+
+            ViewerGroup group = groups.get(connectedPlayer.getProtocolVersion());
+            sendFullStateUnsafe(connectedPlayer, group, connectedPlayer.getProtocolVersion().getProtocol() < MINECRAFT_1_20_2.getProtocol());
+        });
+    }
+
+    /**
+     * Runs all changes made by the action as one update: the changes are encoded once per protocol version
+     * and flushed to every viewer at once.
+     */
+    public void batch(Consumer<SharedObjective> action) {
+        Objects.requireNonNull(action, "action");
+        withBatch(() -> action.accept(this));
+    }
+
+    /**
+     * @see #setScore(String, int)
+     */
+    public void setScore(Player player, int score) {
+        setScore(player.getUsername(), score);
+    }
+
+    /**
+     * Sets the score of the holder, usually the name of a player.
+     */
+    public void setScore(String holder, int score) {
+        Objects.requireNonNull(holder, "holder");
+        withBatch(() -> setScoreUnsafe(holder, score));
+    }
+
+    /**
+     * Sets all scores of the map in one batch, keeping the other scores.
+     */
+    public void setScores(Map<String, Integer> scores) {
+        Objects.requireNonNull(scores, "scores");
+        withBatch(() -> scores.forEach(this::setScoreUnsafe));
+    }
+
+    public @Nullable Integer getScore(String holder) {
+        return withLock(() -> scores.get(holder));
+    }
+
+    @Unmodifiable
+    public Map<String, Integer> getScores() {
+        return withLock(() -> Map.copyOf(scores));
+    }
+
+    /**
+     * @see #removeScore(String)
+     */
+    public void removeScore(Player player) {
+        removeScore(player.getUsername());
+    }
+
+    /**
+     * Removes the score of the holder, e.g. once the player left.
+     *
+     * @return false if the holder had no score
+     */
+    public boolean removeScore(String holder) {
+        Objects.requireNonNull(holder, "holder");
+        return withLock(() -> {
+            if (scores.remove(holder) == null) return false;
+
+            withBatch(() -> {
+                for (ViewerGroup group : groups.values()) {
+                    group.encodedScores.remove(holder);
+                    group.pending.put(holder, EncodedPacket.encode(createResetScorePacket(group.key, holder), group.key));
+                }
+                metrics.recordUpdates(1, 0);
+            });
+            return true;
+        });
+    }
+
+    public Component getTitle() {
+        return withLock(() -> title);
+    }
+
+    public void updateTitle(Component title) {
+        Objects.requireNonNull(title, "title");
+        withBatch(() -> {
+            if (title.equals(this.title)) {
+                metrics.recordUpdates(0, 1);
+                return;
+            }
+
+            this.title = title;
+            objectiveChanged = true;
+            metrics.recordUpdates(1, 0);
+        });
+    }
+
+    @Since(MINECRAFT_1_20_3)
+    public @Nullable ComponentUtils.NumberFormat getNumberFormat() {
+        return withLock(() -> numberFormat);
+    }
+
+    @Since(MINECRAFT_1_20_3)
+    public void setNumberFormat(@Nullable ComponentUtils.NumberFormat numberFormat) {
+        withBatch(() -> {
+            if (Objects.equals(this.numberFormat, numberFormat)) {
+                metrics.recordUpdates(0, 1);
+                return;
+            }
+
+            this.numberFormat = numberFormat;
+            objectiveChanged = true;
+            metrics.recordUpdates(1, 0);
+        });
+    }
+
+    public DisplaySlot getSlot() {
+        return slot;
+    }
+
+    /**
+     * Removes the objective from all viewers.
+     */
+    public void delete() {
+        withLock(() -> {
+            for (ConnectedPlayer viewer : viewers.values()) {
+                sendTo(viewer, List.of(EncodedPacket.encode(createObjectivePacket(viewer, UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD), viewer.getProtocolVersion())));
+            }
+
+            scores.clear();
+            title = null;
+            numberFormat = null;
+            deleteUnsafe();
+        });
+    }
+
+    private void setScoreUnsafe(String holder, int score) {
+        Integer oldScore = scores.put(holder, score);
+        if (oldScore != null && oldScore == score) {
+            metrics.recordUpdates(0, 1);
+            return;
+        }
+
+        for (ViewerGroup group : groups.values()) {
+            EncodedPacket packet = EncodedPacket.encode(createScorePacket(holder, score), group.key);
+            group.encodedScores.put(holder, packet);
+            group.pending.put(holder, packet);
+        }
+        metrics.recordUpdates(1, 0);
+    }
+
+    @Override
+    ProtocolVersion groupKey(ConnectedPlayer player) {
+        return player.getProtocolVersion();
+    }
+
+    @Override
+    ViewerGroup createGroupUnsafe(ProtocolVersion version) {
+        ViewerGroup group = new ViewerGroup(version);
+        scores.forEach((holder, score) -> group.encodedScores.put(holder, EncodedPacket.encode(createScorePacket(holder, score), version)));
+        return group;
+    }
+
+    private void sendFullStateUnsafe(ConnectedPlayer player, ViewerGroup group, boolean sendRemoval) {
+        List<EncodedPacket> packets = new ArrayList<>(group.encodedScores.size() + 3);
+        if (sendRemoval) {
+            packets.add(EncodedPacket.encode(createObjectivePacket(player, UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD), group.key));
+        }
+        packets.add(EncodedPacket.encode(createObjectivePacket(player, UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD), group.key));
+        packets.add(EncodedPacket.encode(new DisplayObjectivePacket(slot.getId(), id), group.key));
+        packets.addAll(group.encodedScores.values());
+        sendTo(player, packets);
+    }
+
+    /**
+     * Sends the changes queued by the outermost batch: the objective update, encoded once per locale,
+     * followed by the score changes, encoded once per protocol version.
+     */
+    private void flushPendingUnsafe() {
+        boolean objectiveChanged = this.objectiveChanged;
+        this.objectiveChanged = false;
+
+        for (ViewerGroup group : groups.values()) {
+            if (group.pending.isEmpty() && !objectiveChanged) continue;
+
+            List<EncodedPacket> scorePackets = List.copyOf(group.pending.values());
+            Map<Locale, EncodedPacket> objectivePackets = new HashMap<>();
+            for (ConnectedPlayer member : group.members) {
+                List<EncodedPacket> packets = scorePackets;
+                if (objectiveChanged) {
+                    packets = new ArrayList<>(scorePackets.size() + 1);
+                    packets.add(objectivePackets.computeIfAbsent(member.getEffectiveLocale(), locale -> EncodedPacket.encode(
+                            createObjectivePacket(member, UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD), group.key)));
+                    packets.addAll(scorePackets);
+                }
+                sendTo(member, packets);
+            }
+            group.pending.clear();
+        }
+    }
+
+    private MinecraftPacket createObjectivePacket(ConnectedPlayer player, UpdateObjectivesPacket.Mode mode) {
+        return new UpdateObjectivesPacket(
+                id,
+                mode,
+                mode == UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD ? Component.empty() : TranslationCache.translate(player, title),
+                type,
+                ComponentCache.numberFormat(player.getProtocolVersion(), numberFormat)
+        );
+    }
+
+    private MinecraftPacket createScorePacket(String holder, int score) {
+        return new UpdateScorePacket(holder, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE, id, score);
+    }
+
+    private MinecraftPacket createResetScorePacket(ProtocolVersion version, String holder) {
+        return version.getProtocol() < MINECRAFT_1_20_3.getProtocol() ?
+                new UpdateScorePacket(holder, UpdateScorePacket.Action.REMOVE_SCORE, id, 0) :
+                new ResetScorePacket(holder, id);
+    }
+
+    private void withBatch(Runnable action) {
+        withLock(() -> {
+            batchDepth++;
+            try {
+                action.run();
+            } finally {
+                if (--batchDepth == 0) {
+                    flushPendingUnsafe();
+                }
+            }
+        });
+    }
+
+    public enum DisplaySlot {
+
+        LIST(0),
+        SIDEBAR(1),
+        BELOW_NAME(2);
+
+        private final int id;
+
+        DisplaySlot(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+    }
+
+    static class ViewerGroup extends MultiViewerBoard.ViewerGroup<ProtocolVersion> {
+
+        /**
+         * The encoded score of every holder, so joining viewers get the table without encoding it again.
+         */
+        private final Map<String, EncodedPacket> encodedScores = new LinkedHashMap<>();
+        /**
+         * The score changes of the running batch by holder, so that only the last change of a holder is sent.
+         */
+        private final Map<String, EncodedPacket> pending = new LinkedHashMap<>();
+
+        private ViewerGroup(ProtocolVersion version) {
+            super(version);
+        }
+
+    }
+
+}
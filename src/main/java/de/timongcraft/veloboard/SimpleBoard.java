@@ -2,6 +2,8 @@ package de.timongcraft.veloboard;
 
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.utils.FractionalKeys;
+import de.timongcraft.veloboard.utils.LineDiff;
 import de.timongcraft.veloboard.utils.ListUtils;
 import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
 import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
@@ -16,8 +18,14 @@ import org.jetbrains.annotations.Unmodifiable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
 
@@ -29,10 +37,39 @@ import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
 @Since(MINECRAFT_1_20_3)
 public class SimpleBoard extends AbstractBoard {
 
+    private static final int MAX_LINE_KEY_LENGTH = 16;
+    private static final String[] SCORE_HOLDERS = new String[128];
+
+    static {
+        for (int score = 0; score < SCORE_HOLDERS.length; score++) {
+            SCORE_HOLDERS[score] = String.valueOf(score);
+        }
+    }
+
     private ComponentHolder title;
     private @Nullable ComponentUtils.NumberFormat defaultNumberFormat;
     private final List<LinesEntry> lines = new ArrayList<>();
+    /**
+     * The lines as known by the client while updates are deferred to the {@link BoardScheduler}.
+     */
+    private @Nullable List<LinesEntry> pendingBaseLines;
+    private boolean pendingObjectiveUpdate = false;
+    private boolean keyedLines = false;
+    /**
+     * Whether the lines known by the client are keyed, which differs from {@link #keyedLines} while the change is deferred.
+     */
+    private boolean clientKeyedLines = false;
+    /**
+     * The score holders of the lines known by the client, only used with {@link #setKeyedLines(boolean) keyed lines}.
+     */
+    private List<String> lineKeys = new ArrayList<>();
+    /**
+     * The number of lines shown to the client, or 0 to show all lines.
+     */
+    private int windowSize = 0;
+    private int windowOffset = 0;
     private final LinesEntry EMPTY_ENTRY;
+    private volatile BoardSnapshot<LinesEntry> snapshot;
 
     public SimpleBoard(Player player) {
         this(player, Component.empty());
@@ -45,55 +82,156 @@ public class SimpleBoard extends AbstractBoard {
     public SimpleBoard(Player player, Component title, @Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
         super(player);
         setTitleSilent(Objects.requireNonNull(title, "title"));
-        this.defaultNumberFormat = defaultNumberFormat != null ? defaultNumberFormat.compiled(player.getProtocolVersion()) : null;
-        EMPTY_ENTRY = new LinesEntry(new ComponentHolder(player.getProtocolVersion(), Component.empty()), null);
+        this.defaultNumberFormat = ComponentCache.numberFormat(player.getProtocolVersion(), defaultNumberFormat);
+        EMPTY_ENTRY = new LinesEntry(ComponentCache.holder(player.getProtocolVersion(), Component.empty()), null);
+        this.snapshot = new BoardSnapshot<>(0, this.title.getComponent(), List.of(), this.defaultNumberFormat);
     }
 
     public void initialize() {
-        withLock(() -> {
+        withBatch(() -> {
             sendObjectivePacket(UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD);
-            sendPacket(new DisplayObjectivePacket(1, id));
+            sendPacket(new DisplayObjectivePacket(1, objectiveIdUnsafe()));
+            setShownUnsafe(true);
         });
     }
 
     public void resend() {
-        withLock(() -> {
+        withBatch(() -> {
             clear();
             initialize();
+            pendingBaseLines = null;
+            pendingObjectiveUpdate = false;
 
-            for (int i = 0; i < lines.size(); ++i) {
-                sendLineChangeUnsafe(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+            sendAllLinesUnsafe();
+        });
+    }
+
+    @Override
+    public void resync() {
+        withBatch(() -> {
+            if (!canResyncUnsafe()) {
+                resend();
+                return;
             }
+
+            pendingBaseLines = null;
+            pendingObjectiveUpdate = false;
+            // the cached full state uses the evenly spread keys
+            if (keyedLines) lineKeys = FractionalKeys.spread(shownLinesUnsafe().size());
+
+            replayFullStateUnsafe(() -> {
+                initialize();
+                sendAllLinesUnsafe();
+            });
         });
     }
 
+    /**
+     * Runs all changes made by the action as one update: packets are queued and flushed to the player at once.
+     *
+     * <p>Example: {@code board.batch(b -> { b.setTitle(title); b.setLineComponents(lines); })}
+     */
+    public void batch(Consumer<SimpleBoard> action) {
+        Objects.requireNonNull(action, "action");
+        withBatch(() -> action.accept(this));
+    }
+
+    /**
+     * Like {@link #batch(Consumer)}, but completes the returned future once the changes were sent.
+     * On an {@link #setEventLoopConfined(boolean) event loop confined} board the action runs on the player's event loop.
+     */
+    public CompletableFuture<Void> batchAsync(Consumer<SimpleBoard> action) {
+        Objects.requireNonNull(action, "action");
+        return withBatchAsync(() -> action.accept(this));
+    }
+
+    /**
+     * @see #resend()
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> resendAsync() {
+        return withBatchAsync(this::resend);
+    }
+
+    /**
+     * @see #setLine(int, LinesEntry)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> setLineAsync(int lineIndex, LinesEntry line) {
+        return withBatchAsync(() -> setLine(lineIndex, line));
+    }
+
+    /**
+     * @see #setLineComponents(Collection)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> setLineComponentsAsync(Collection<Component> lineComponents) {
+        return withBatchAsync(() -> setLineComponents(lineComponents));
+    }
+
+    /**
+     * @see #setLines(Collection)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> setLinesAsync(Collection<LinesEntry> lines) {
+        return withBatchAsync(() -> setLines(lines));
+    }
+
+    /**
+     * @see #setTitle(Component)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> setTitleAsync(Component title) {
+        return withBatchAsync(() -> setTitle(title));
+    }
+
     @Override
     public void clear() {
-        withLock(() -> sendObjectivePacket(UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD));
+        withBatch(() -> {
+            sendObjectivePacket(UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD);
+            setShownUnsafe(false);
+        });
     }
 
     @Override
     public void delete() {
-        withLock(() -> {
+        withLockAwaiting(() -> {
             super.delete();
             title = null;
             lines.clear();
+            pendingBaseLines = null;
+            lineKeys.clear();
             defaultNumberFormat = null;
         });
     }
 
+    /**
+     * Returns the current state of the board, without taking the lock.
+     *
+     * @see #batchIfUnchanged(long, Consumer)
+     */
+    public BoardSnapshot<LinesEntry> getSnapshot() {
+        checkNotDeleted();
+        return snapshot;
+    }
+
+    /**
+     * Like {@link #batch(Consumer)}, but only runs the action if the board wasn't changed since the snapshot with the version was published.
+     *
+     * @return whether the action ran
+     * @see #getSnapshot()
+     */
+    public boolean batchIfUnchanged(long version, Consumer<SimpleBoard> action) {
+        Objects.requireNonNull(action, "action");
+        return withBatchIfUnchanged(version, () -> action.accept(this));
+    }
+
     public @Nullable Component getLineComponent(int lineIndex) {
-        return withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, true);
-            return lines.get(lineIndex) != null ? lines.get(lineIndex).getComponent() : null;
-        });
+        return getSnapshot().getLine(lineIndex).getComponent();
     }
 
     public @Nullable LinesEntry getLine(int lineIndex) {
-        return withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, true);
-            return lines.get(lineIndex) != null ? lines.get(lineIndex) : null;
-        });
+        return getSnapshot().getLine(lineIndex);
     }
 
     /**
@@ -107,25 +245,84 @@ public class SimpleBoard extends AbstractBoard {
 
     public void setLine(int lineIndex, LinesEntry line) {
         Objects.requireNonNull(line, "line");
-        withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, false);
-            LinesEntry linesEntry = new LinesEntry(new ComponentHolder(player.getProtocolVersion(), player.translateMessage(line.getComponent())), line.formatCompiled(player.getProtocolVersion()));
+        checkLineIndex(lineIndex);
+        withBatch(() -> {
+            setLineUnsafe(lineIndex, new LinesEntry(ComponentCache.holder(player.getProtocolVersion(), translate(line.getComponent())), line.formatCompiled(player.getProtocolVersion())));
+        });
+    }
 
-            if (lineIndex < lines.size()) {
-                lines.set(lineIndex, linesEntry);
-                sendLineChangeUnsafe(getScoreByLineUnsafe(lineIndex), UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+    /**
+     * Sets the line to the template with its slots filled. Only the values are serialized,
+     * spliced into the template serialized once per protocol version.
+     *
+     * <p>Example: {@code board.setLine(0, coinsTemplate, Map.of("coins", coins))}
+     *
+     * @param values the values by slot name, converted with {@link String#valueOf(Object)}
+     * @throws IllegalArgumentException if a slot has no value or a value has no slot
+     */
+    public void setLine(int lineIndex, LineTemplate template, Map<String, ?> values) {
+        Objects.requireNonNull(template, "template");
+        String[] slotValues = template.values(values);
+        checkLineIndex(lineIndex);
+        withBatch(() -> {
+            long fingerprint = template.fingerprint(slotValues);
+            if (lineIndex < lines.size() && lines.get(lineIndex).getFingerprint() == fingerprint) {
+                recordUpdates(0, 1);
                 return;
             }
 
-            List<LinesEntry> newLines = new ArrayList<>(lines);
-            ListUtils.setOrPad(newLines, lineIndex, line, () -> EMPTY_ENTRY);
-            setLines(newLines);
+            setLineUnsafe(lineIndex, new LinesEntry(template.holder(player, slotValues), null, fingerprint));
         });
     }
 
+    private void setLineUnsafe(int lineIndex, LinesEntry linesEntry) {
+        if (lineIndex < lines.size()) {
+            if (lines.get(lineIndex).isSame(linesEntry)) {
+                recordUpdates(0, 1);
+                return;
+            }
+
+            stateChangedUnsafe();
+            if (deferUpdateUnsafe()) {
+                if (pendingBaseLines == null) pendingBaseLines = new ArrayList<>(shownLinesUnsafe());
+                lines.set(lineIndex, storedUnsafe(linesEntry));
+                return;
+            }
+
+            lines.set(lineIndex, storedUnsafe(linesEntry));
+            if (pendingBaseLines != null) {
+                // lines were set silently, so the client's lines (and keys) differ in more than this line
+                List<LinesEntry> oldLines = pendingBaseLines;
+                pendingBaseLines = null;
+                updateScoreboard(oldLines);
+                return;
+            }
+
+            int shownIndex = lineIndex - shownOffsetUnsafe();
+            int shownSize = shownLinesUnsafe().size();
+            if (shownIndex < 0 || shownIndex >= shownSize) {
+                recordUpdates(0, 1);
+                return;
+            }
+
+            if (keyedLines) {
+                sendKeyedLineUnsafe(lineKeys.get(shownIndex), linesEntry);
+            } else {
+                sendLineChangeUnsafe(shownSize - shownIndex - 1, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+            }
+            recordUpdates(1, 0);
+            return;
+        }
+
+        List<LinesEntry> newLines = new ArrayList<>(lines);
+        ListUtils.setOrPad(newLines, lineIndex, linesEntry, () -> EMPTY_ENTRY);
+        applyLinesUnsafe(newLines);
+    }
+
     public void removeLine(int lineIndex) {
-        withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, true);
+        checkLineIndex(lineIndex);
+        withBatch(() -> {
+            checkLineInRangeUnsafe(lineIndex);
             List<LinesEntry> newLines = new ArrayList<>(lines);
 
             newLines.remove(lineIndex);
@@ -144,7 +341,7 @@ public class SimpleBoard extends AbstractBoard {
      */
     @Unmodifiable
     public List<Component> getLineComponents() {
-        return withLock(() -> lines.stream().map(LinesEntry::getComponent).toList());
+        return ListUtils.mappedView(getSnapshot().lines(), LinesEntry::getComponent);
     }
 
     /**
@@ -158,11 +355,11 @@ public class SimpleBoard extends AbstractBoard {
      */
     @Unmodifiable
     public List<LinesEntry> getLines() {
-        return withLock(() -> List.copyOf(lines));
+        return getSnapshot().lines();
     }
 
     public int linesSize() {
-        return withLock(lines::size);
+        return getSnapshot().lines().size();
     }
 
     public void setLineComponents(Component... lineComponents) {
@@ -171,13 +368,8 @@ public class SimpleBoard extends AbstractBoard {
 
     public void setLineComponents(Collection<Component> lineComponents) {
         Objects.requireNonNull(lineComponents, "lineComponents");
-        withLock(() -> {
-            checkLineIndexUnsafe(lines.size(), false);
-            List<LinesEntry> oldLines = new ArrayList<>(lines);
-
-            setLinesComponentsSilent(lineComponents);
-
-            updateScoreboard(oldLines);
+        withBatch(() -> {
+            applyLinesUnsafe(lineComponents.stream().map(this::createLinesEntryUnsafe).toList());
         });
     }
 
@@ -185,12 +377,7 @@ public class SimpleBoard extends AbstractBoard {
      * Useful for updating lines before a {@link #resend()}.
      */
     public void setLinesComponentsSilent(Collection<Component> lines) {
-        withLock(() -> {
-            this.lines.clear();
-            this.lines.addAll(lines.stream().map(c -> new LinesEntry(
-                    new ComponentHolder(player.getProtocolVersion(), player.translateMessage(c)),
-                    null)).toList());
-        });
+        withLock(() -> setLinesSilentUnsafe(lines.stream().map(this::createLinesEntryUnsafe).toList()));
     }
 
     public void setLines(LinesEntry... lines) {
@@ -199,15 +386,7 @@ public class SimpleBoard extends AbstractBoard {
 
     public void setLines(Collection<LinesEntry> lines) {
         Objects.requireNonNull(lines, "lines");
-        withLock(() -> {
-            checkLineIndexUnsafe(lines.size(), false);
-            List<LinesEntry> oldLines = new ArrayList<>(this.lines);
-
-            this.lines.clear();
-            this.lines.addAll(lines);
-
-            updateScoreboard(oldLines);
-        });
+        withBatch(() -> applyLinesUnsafe(lines));
     }
 
     /**
@@ -223,54 +402,192 @@ public class SimpleBoard extends AbstractBoard {
      * Useful for updating lines before a {@link #resend()}.
      */
     public void setLinesSilent(Collection<LinesEntry> lines) {
-        withLock(() -> {
-            this.lines.clear();
-            this.lines.addAll(lines);
-        });
+        withLock(() -> setLinesSilentUnsafe(lines));
+    }
+
+    private void setLinesSilentUnsafe(Collection<LinesEntry> newLines) {
+        // the client still shows its lines (and keys), so the next visible change is diffed against them
+        if (pendingBaseLines == null) pendingBaseLines = new ArrayList<>(shownLinesUnsafe());
+        storeLinesUnsafe(newLines);
+        stateChangedUnsafe();
     }
 
     public Component getTitle() {
-        return withLock(() -> title.getComponent());
+        return getSnapshot().title();
     }
 
     public void setTitle(Component title) {
         Objects.requireNonNull(title, "title");
         withLock(() -> {
-            setTitleSilent(title);
-            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            ComponentHolder newTitle = ComponentCache.holder(player.getProtocolVersion(), translate(title));
+            if (newTitle.getComponent().equals(this.title.getComponent())) {
+                recordUpdates(0, 1);
+                return;
+            }
+
+            this.title = newTitle;
+            stateChangedUnsafe();
+            sendObjectiveUpdateUnsafe();
         });
     }
 
     private void setTitleSilent(Component newTitle) {
-        title = new ComponentHolder(player.getProtocolVersion(), player.translateMessage(newTitle));
+        title = ComponentCache.holder(player.getProtocolVersion(), translate(newTitle));
+    }
+
+    public boolean isKeyedLines() {
+        return withLock(() -> keyedLines);
+    }
+
+    /**
+     * Enables or disables keyed lines.
+     *
+     * <p>By default, the score of a line is its position from the bottom, so inserting or removing a line
+     * rewrites every line whose position changed. With keyed lines, every line keeps its own score holder and
+     * all lines share the score 0, so the client orders the lines by their holder. Inserting, removing or moving lines
+     * then only sends packets for the lines that were actually added, removed or changed.
+     *
+     * <p><b>Note</b>: As all lines have the score 0, keyed lines should be used with a (default) number format hiding the score.
+     */
+    public void setKeyedLines(boolean keyedLines) {
+        withBatch(() -> {
+            if (this.keyedLines == keyedLines) return;
+
+            List<LinesEntry> oldShownLines = new ArrayList<>(shownLinesUnsafe());
+            this.keyedLines = keyedLines;
+            invalidateFullStateUnsafe();
+
+            if (deferUpdateUnsafe()) {
+                if (pendingBaseLines == null) pendingBaseLines = oldShownLines;
+                return;
+            }
+
+            List<LinesEntry> oldLines = pendingBaseLines != null ? pendingBaseLines : oldShownLines;
+            pendingBaseLines = null;
+            updateScoreboard(oldLines);
+        });
+    }
+
+    public int getWindowSize() {
+        return withLock(() -> windowSize);
+    }
+
+    public int getWindowOffset() {
+        return withLock(() -> windowOffset);
+    }
+
+    /**
+     * Virtualizes the board: all lines are kept, but only a window of {@code windowSize} lines, starting at the
+     * {@link #getWindowOffset() window offset}, is shown to the client. Changes to lines outside the window aren't sent.
+     *
+     * <p>Scrolling moves the window, sending only the lines that entered or left it if {@link #setKeyedLines(boolean) keyed lines} are enabled.
+     * Without keyed lines every shown line moves to another score, so all changed positions are resent.
+     *
+     * @param windowSize the number of lines shown, or 0 to show all lines
+     */
+    public void setWindowSize(int windowSize) {
+        if (windowSize < 0) {
+            throw new IllegalArgumentException("Window size must be non-negative");
+        }
+
+        withBatch(() -> moveWindowUnsafe(windowSize, windowOffset));
+    }
+
+    /**
+     * Moves the window so that it starts at the line, keeping it within the lines.
+     *
+     * @see #setWindowSize(int)
+     */
+    public void scrollTo(int lineIndex) {
+        withBatch(() -> moveWindowUnsafe(windowSize, lineIndex));
+    }
+
+    /**
+     * Moves the window by the number of lines, down for a positive and up for a negative number.
+     *
+     * @see #setWindowSize(int)
+     */
+    public void scrollBy(int lines) {
+        withBatch(() -> moveWindowUnsafe(windowSize, windowOffset + lines));
+    }
+
+    public void nextPage() {
+        withBatch(() -> moveWindowUnsafe(windowSize, windowOffset + windowSize));
+    }
+
+    public void previousPage() {
+        withBatch(() -> moveWindowUnsafe(windowSize, windowOffset - windowSize));
+    }
+
+    private void moveWindowUnsafe(int newWindowSize, int newWindowOffset) {
+        List<LinesEntry> oldShownLines = new ArrayList<>(shownLinesUnsafe());
+
+        windowSize = newWindowSize;
+        windowOffset = newWindowSize > 0 ? Math.max(0, Math.min(newWindowOffset, lines.size() - newWindowSize)) : 0;
+        invalidateFullStateUnsafe();
+
+        if (deferUpdateUnsafe()) {
+            if (pendingBaseLines == null) pendingBaseLines = oldShownLines;
+            return;
+        }
+
+        List<LinesEntry> oldLines = pendingBaseLines != null ? pendingBaseLines : oldShownLines;
+        pendingBaseLines = null;
+        updateScoreboard(oldLines);
+    }
+
+    /**
+     * @return the lines shown to the client: all lines, or the window of a virtualized board (a view backed by the lines)
+     */
+    private List<LinesEntry> shownLinesUnsafe() {
+        if (windowSize == 0) return lines;
+
+        int from = shownOffsetUnsafe();
+        return lines.subList(from, Math.min(from + windowSize, lines.size()));
+    }
+
+    /**
+     * @return the index of the first shown line, keeping the window filled if lines were removed after scrolling
+     */
+    private int shownOffsetUnsafe() {
+        return windowSize > 0 ? Math.max(0, Math.min(windowOffset, lines.size() - windowSize)) : 0;
     }
 
     public @Nullable ComponentUtils.NumberFormat getDefaultNumberFormat() {
-        return withLock(() -> defaultNumberFormat);
+        return getSnapshot().numberFormat();
     }
 
     public void setDefaultNumberFormat(@Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
         withLock(() -> {
-            this.defaultNumberFormat = defaultNumberFormat != null ? defaultNumberFormat.compiled(player.getProtocolVersion()) : null;
+            ComponentUtils.NumberFormat newNumberFormat = ComponentCache.numberFormat(player.getProtocolVersion(), defaultNumberFormat);
+            if (Objects.equals(this.defaultNumberFormat, newNumberFormat)) {
+                recordUpdates(0, 1);
+                return;
+            }
 
-            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            this.defaultNumberFormat = newNumberFormat;
+            stateChangedUnsafe();
+
+            sendObjectiveUpdateUnsafe();
         });
     }
 
-    private void checkLineIndexUnsafe(int lineIndex, boolean checkInRange) {
+    /**
+     * Checks the line index before the change is handed to the event loop of a {@link #setEventLoopConfined(boolean) confined} board,
+     * so that invalid arguments are thrown to the caller.
+     */
+    private static void checkLineIndex(int lineIndex) {
         if (lineIndex < 0) {
             throw new IllegalArgumentException("Line index must be non-negative");
         }
+    }
 
-        if (checkInRange && lineIndex >= lines.size()) {
+    private void checkLineInRangeUnsafe(int lineIndex) {
+        if (lineIndex >= lines.size()) {
             throw new IllegalArgumentException("Line index must be within the valid range (index >= 0 && index < " + lines.size() + ")");
         }
     }
 
-    private int getScoreByLineUnsafe(int lineIndex) {
-        return lines.size() - lineIndex - 1;
-    }
-
     private static @Nullable LinesEntry getLineByScore(List<LinesEntry> lines, int score) {
         if (score < lines.size()) {
             return lines.get(lines.size() - score - 1);
@@ -279,37 +596,302 @@ public class SimpleBoard extends AbstractBoard {
         }
     }
 
+    private LinesEntry createLinesEntryUnsafe(Component component) {
+        return new LinesEntry(ComponentCache.holder(player.getProtocolVersion(), translate(component)), null);
+    }
+
+    private LinesEntry storedUnsafe(LinesEntry line) {
+        return isCompactStorage() ? line.intern() : line;
+    }
+
+    private void storeLinesUnsafe(Collection<LinesEntry> newLines) {
+        lines.clear();
+        for (LinesEntry line : newLines) {
+            lines.add(storedUnsafe(line));
+        }
+    }
+
+    private void applyLinesUnsafe(Collection<LinesEntry> newLines) {
+        stateChangedUnsafe();
+        if (deferUpdateUnsafe()) {
+            if (pendingBaseLines == null) pendingBaseLines = new ArrayList<>(shownLinesUnsafe());
+            storeLinesUnsafe(newLines);
+            return;
+        }
+
+        List<LinesEntry> oldLines = pendingBaseLines != null ? pendingBaseLines : new ArrayList<>(shownLinesUnsafe());
+        pendingBaseLines = null;
+
+        storeLinesUnsafe(newLines);
+
+        updateScoreboard(oldLines);
+    }
+
+    @Override
+    protected void setProvidedLinesUnsafe(List<Component> lines) {
+        applyLinesUnsafe(lines.stream().map(this::createLinesEntryUnsafe).toList());
+    }
+
+    @Override
+    protected void setProvidedLineUnsafe(int lineIndex, Component line) {
+        setLineUnsafe(lineIndex, createLinesEntryUnsafe(line));
+    }
+
+    @Override
+    protected void setTitleFrameUnsafe(Animation animation, int frame) {
+        title = frameHolder(animation, frame);
+        stateChangedUnsafe();
+        sendObjectiveUpdateUnsafe();
+    }
+
+    @Override
+    protected void setLineFrameUnsafe(int lineIndex, Animation animation, int frame) {
+        setLineUnsafe(lineIndex, new LinesEntry(frameHolder(animation, frame), null, animation.getFingerprint(frame)));
+    }
+
+    @Override
+    protected void checkAnimatedLineIndex(int lineIndex) {
+        checkLineIndex(lineIndex);
+    }
+
+    @Override
+    protected void publishSnapshotUnsafe(long version) {
+        snapshot = new BoardSnapshot<>(version, title.getComponent(), List.copyOf(lines), defaultNumberFormat);
+    }
+
+    @Override
+    protected void compactLinesUnsafe() {
+        storeLinesUnsafe(List.copyOf(lines));
+        if (pendingBaseLines != null) pendingBaseLines.replaceAll(LinesEntry::intern);
+        // same content, so the version stays
+        publishSnapshotUnsafe(snapshot.version());
+    }
+
+    @Override
+    protected long retainedSizeOfStateUnsafe() {
+        // the lines and their copy in the snapshot; the holders are shared through the ComponentCache
+        long size = 2 * RetainedSize.list(lines.size()) + RetainedSize.object(4, 8);
+        if (!isCompactStorage()) size += lines.size() * RetainedSize.object(2, 8);
+
+        if (pendingBaseLines != null) size += RetainedSize.list(pendingBaseLines.size());
+        if (keyedLines) {
+            size += RetainedSize.list(lineKeys.size());
+            for (String key : lineKeys) {
+                size += RetainedSize.string(key);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    protected void flushPendingUnsafe() {
+        if (pendingObjectiveUpdate) {
+            pendingObjectiveUpdate = false;
+            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            recordUpdates(1, 0);
+        }
+
+        if (pendingBaseLines != null) {
+            List<LinesEntry> oldLines = pendingBaseLines;
+            pendingBaseLines = null;
+            updateScoreboard(oldLines);
+        }
+    }
+
+    private void sendAllLinesUnsafe() {
+        List<LinesEntry> shownLines = shownLinesUnsafe();
+        clientKeyedLines = keyedLines;
+        if (keyedLines) {
+            lineKeys = FractionalKeys.spread(shownLines.size());
+            for (int i = 0; i < shownLines.size(); i++) {
+                sendKeyedLineUnsafe(lineKeys.get(i), shownLines.get(i));
+            }
+            return;
+        }
+
+        for (int i = 0; i < shownLines.size(); ++i) {
+            sendLineChangeUnsafe(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+        }
+    }
+
     private void updateScoreboard(List<LinesEntry> oldLines) {
-        if (oldLines.size() > lines.size()) {
-            for (int i = oldLines.size() - 1; i >= lines.size(); i--) {
+        List<LinesEntry> shownLines = shownLinesUnsafe();
+        if (clientKeyedLines != keyedLines) {
+            // the score holders of all lines change
+            for (int i = 0; i < oldLines.size(); i++) {
+                sendPacket(new ResetScorePacket(clientKeyedLines ? lineKeys.get(i) : scoreHolder(i), objectiveIdUnsafe()));
+            }
+            sendAllLinesUnsafe();
+            recordUpdates(shownLines.size(), 0);
+            return;
+        }
+
+        if (isDoubleBuffered() && shouldSwapUnsafe(countChangedLines(oldLines, shownLines), shownLines.size())) {
+            swapUnsafe();
+            recordUpdates(shownLines.size(), 0);
+            return;
+        }
+
+        int changedLines = keyedLines ? updateKeyedScoreboard(oldLines, shownLines) : updateScoreboardByScore(oldLines, shownLines);
+        recordUpdates(changedLines, Math.max(0, Math.max(oldLines.size(), shownLines.size()) - changedLines));
+    }
+
+    /**
+     * Estimates the lines a diff would send by comparing the lines at each position from the bottom.
+     */
+    private static int countChangedLines(List<LinesEntry> oldLines, List<LinesEntry> shownLines) {
+        int changedLines = Math.abs(oldLines.size() - shownLines.size());
+        for (int score = 0; score < Math.min(oldLines.size(), shownLines.size()); score++) {
+            if (!Objects.requireNonNull(getLineByScore(oldLines, score)).isSame(Objects.requireNonNull(getLineByScore(shownLines, score)))) {
+                changedLines++;
+            }
+        }
+        return changedLines;
+    }
+
+    /**
+     * Builds the shown lines on the hidden objective, shows it and removes the previously shown objective with all its scores.
+     */
+    private void swapUnsafe() {
+        String shownObjectiveId = swapObjectiveIdUnsafe();
+        sendObjectivePacket(UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD);
+        sendAllLinesUnsafe();
+        sendPacket(new DisplayObjectivePacket(1, objectiveIdUnsafe()));
+        sendObjectivePacket(shownObjectiveId, UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD);
+    }
+
+    /**
+     * @return the number of lines sent
+     */
+    private int updateScoreboardByScore(List<LinesEntry> oldLines, List<LinesEntry> shownLines) {
+        int changedLines = Math.abs(oldLines.size() - shownLines.size());
+
+        if (oldLines.size() > shownLines.size()) {
+            for (int i = oldLines.size() - 1; i >= shownLines.size(); i--) {
                 sendLineChangeUnsafe(i, UpdateScorePacket.Action.REMOVE_SCORE);
             }
         }
 
-        if (lines.size() > oldLines.size()) {
-            for (int i = oldLines.size(); i < lines.size(); i++) {
+        if (shownLines.size() > oldLines.size()) {
+            for (int i = oldLines.size(); i < shownLines.size(); i++) {
                 sendLineChangeUnsafe(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
             }
         }
 
-        for (int i = 0; i < Math.min(oldLines.size(), lines.size()); i++) {
-            LinesEntry newLine = getLineByScore(lines, i);
+        for (int i = 0; i < Math.min(oldLines.size(), shownLines.size()); i++) {
+            LinesEntry newLine = getLineByScore(shownLines, i);
             if (newLine == null) continue;
             LinesEntry oldLine = getLineByScore(oldLines, i);
             if (oldLine == null) continue;
-            if (newLine.getComponent().equals(oldLine.getComponent())
-                    && Objects.equals(newLine.getFormat(), oldLine.getFormat())) continue;
+            if (newLine.isSame(oldLine)) continue;
             sendLineChangeUnsafe(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+            changedLines++;
+        }
+        return changedLines;
+    }
+
+    /**
+     * Sends the changes from the old to the new keys of the lines: holders the new keys don't contain are removed,
+     * and lines are only sent if their holder is new or showed another line.
+     * The keys are chosen by {@link #planLineKeys(List, List, List)}, or spread evenly if repeated inserts at the same position
+     * made a key too long.
+     *
+     * @return the number of lines sent or removed
+     */
+    private int updateKeyedScoreboard(List<LinesEntry> oldLines, List<LinesEntry> shownLines) {
+        List<String> newKeys = planLineKeys(lineKeys, oldLines, shownLines);
+        for (String key : newKeys) {
+            if (key.length() > MAX_LINE_KEY_LENGTH) {
+                newKeys = FractionalKeys.spread(shownLines.size());
+                break;
+            }
+        }
+
+        Map<String, LinesEntry> clientLines = new HashMap<>();
+        for (int i = 0; i < oldLines.size(); i++) {
+            clientLines.put(lineKeys.get(i), oldLines.get(i));
+        }
+        Set<String> newKeySet = new HashSet<>(newKeys);
+
+        int changedLines = 0;
+        for (String key : lineKeys) {
+            if (!newKeySet.contains(key)) {
+                sendPacket(new ResetScorePacket(key, objectiveIdUnsafe()));
+                changedLines++;
+            }
+        }
+
+        for (int i = 0; i < shownLines.size(); i++) {
+            LinesEntry clientLine = clientLines.get(newKeys.get(i));
+            if (clientLine != null && clientLine.isSame(shownLines.get(i))) continue;
+
+            sendKeyedLineUnsafe(newKeys.get(i), shownLines.get(i));
+            changedLines++;
+        }
+
+        lineKeys = newKeys;
+        return changedLines;
+    }
+
+    /**
+     * Keeps the holders of all lines in the longest common subsequence of the old and new lines.
+     * Between two kept lines, the holders of replaced lines are reused for the new lines
+     * and missing holders get keys sorting between their neighbours.
+     *
+     * @param oldKeys the keys of the old lines
+     * @return the keys of the new lines
+     */
+    static List<String> planLineKeys(List<String> oldKeys, List<LinesEntry> oldLines, List<LinesEntry> newLines) {
+        int[] matches = LineDiff.longestCommonSubsequence(oldLines, newLines, LinesEntry::isSame);
+        List<String> newKeys = new ArrayList<>(newLines.size());
+
+        int oldIndex = 0;
+        int newIndex = 0;
+        String lowerKey = "";
+        while (true) {
+            int anchorOld = oldIndex;
+            while (anchorOld < oldLines.size() && matches[anchorOld] < 0) {
+                anchorOld++;
+            }
+            int anchorNew = anchorOld < oldLines.size() ? matches[anchorOld] : newLines.size();
+            String upperKey = anchorOld < oldLines.size() ? oldKeys.get(anchorOld) : null;
+
+            int reused = 0;
+            for (; oldIndex + reused < anchorOld && newIndex + reused < anchorNew; reused++) {
+                lowerKey = oldKeys.get(oldIndex + reused);
+                newKeys.add(lowerKey);
+            }
+
+            for (int i = newIndex + reused; i < anchorNew; i++) {
+                lowerKey = FractionalKeys.between(lowerKey, upperKey);
+                newKeys.add(lowerKey);
+            }
+
+            if (upperKey == null) break;
+
+            newKeys.add(upperKey);
+            lowerKey = upperKey;
+            oldIndex = anchorOld + 1;
+            newIndex = anchorNew + 1;
         }
+        return newKeys;
+    }
+
+    private void sendKeyedLineUnsafe(String key, LinesEntry line) {
+        sendPacket(new UpdateScorePacket(key, objectiveIdUnsafe(), 0, line.getHolder(), line.getFormat()));
+    }
+
+    private static String scoreHolder(int score) {
+        return score < SCORE_HOLDERS.length ? SCORE_HOLDERS[score] : String.valueOf(score);
     }
 
     private void sendLineChangeUnsafe(int score, UpdateScorePacket.Action action) {
         if (action == UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE) {
-            LinesEntry line = getLineByScore(lines, score);
+            LinesEntry line = getLineByScore(shownLinesUnsafe(), score);
             sendPacket(
                     new UpdateScorePacket(
-                            String.valueOf(score),
-                            id,
+                            scoreHolder(score),
+                            objectiveIdUnsafe(),
                             score,
                             line != null ?
                                     line.getHolder() :
@@ -321,16 +903,30 @@ public class SimpleBoard extends AbstractBoard {
             );
         } else {
             sendPacket(new ResetScorePacket(
-                    String.valueOf(score),
-                    id
+                    scoreHolder(score),
+                    objectiveIdUnsafe()
             ));
         }
     }
 
+    private void sendObjectiveUpdateUnsafe() {
+        if (deferUpdateUnsafe()) {
+            pendingObjectiveUpdate = true;
+            return;
+        }
+
+        sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+        recordUpdates(1, 0);
+    }
+
     private void sendObjectivePacket(UpdateObjectivesPacket.Mode mode) {
+        sendObjectivePacket(objectiveIdUnsafe(), mode);
+    }
+
+    private void sendObjectivePacket(String objectiveId, UpdateObjectivesPacket.Mode mode) {
         sendPacket(
                 new UpdateObjectivesPacket(
-                        id,
+                        objectiveId,
                         mode,
                         title,
                         UpdateObjectivesPacket.Type.INTEGER,
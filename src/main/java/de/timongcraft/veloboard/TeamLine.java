@@ -0,0 +1,85 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import de.timongcraft.veloboard.utils.WeakInterner;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A line of a board using a team per line ({@link VeloBoard}, {@link BroadcastBoard}),
+ * with the {@link ComponentFingerprint fingerprint} of its content computed once when it is created.
+ *
+ * @param translatable whether the component {@link TranslationCache#containsTranslatable(Component) has to be translated}
+ * @param source       the template or animation frame the line comes from, if any, so that it can be sent without serializing the component
+ */
+record TeamLine(Component component, long fingerprint, boolean translatable, @Nullable Source source) {
+
+    /**
+     * The flyweights of the lines of compact boards, by fingerprint.
+     */
+    private static final WeakInterner<Long, TeamLine> FLYWEIGHTS = new WeakInterner<>((a, b) -> a.component.equals(b.component));
+
+    static final TeamLine EMPTY = of(Component.empty());
+
+    static TeamLine of(Component component) {
+        return new TeamLine(component, ComponentFingerprint.of(component), TranslationCache.containsTranslatable(component), null);
+    }
+
+    static List<TeamLine> of(Collection<Component> components) {
+        return components.stream().map(TeamLine::of).toList();
+    }
+
+    static List<Component> components(List<TeamLine> lines) {
+        return lines.stream().map(TeamLine::component).toList();
+    }
+
+    static long[] fingerprints(List<TeamLine> lines) {
+        long[] fingerprints = new long[lines.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            fingerprints[i] = lines.get(i).fingerprint;
+        }
+        return fingerprints;
+    }
+
+    /**
+     * @return the flyweight of the line, shared by all compact boards showing the same line
+     */
+    TeamLine intern() {
+        return FLYWEIGHTS.intern(fingerprint, this);
+    }
+
+    /**
+     * @return the component translated in the locale of the player, see {@link TranslationCache}
+     */
+    Component translated(ConnectedPlayer player) {
+        return TranslationCache.translate(player, component, fingerprint, translatable);
+    }
+
+    /**
+     * @return the line serialized for the player, by its source if it has one, or shared through the {@link ComponentCache}
+     */
+    ComponentHolder holder(ConnectedPlayer player) {
+        if (source != null) return source.holder(player);
+        if (translatable) return ComponentCache.holder(player.getProtocolVersion(), translated(player));
+
+        return ComponentCache.holder(player.getProtocolVersion(), component, fingerprint);
+    }
+
+    boolean isSame(TeamLine other) {
+        return fingerprint == other.fingerprint;
+    }
+
+    /**
+     * Serializes a line for a player without serializing its component, see {@link LineTemplate.Filled} and {@link Animation.Frame}.
+     */
+    interface Source {
+
+        ComponentHolder holder(ConnectedPlayer player);
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package de.timongcraft.veloboard;
+
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Plans the packets of a state transition of a board using a team per line ({@link VeloBoard}, {@link BroadcastBoard}).
+ *
+ * <p>Lines are addressed by their score (position from the bottom). Every score produces at most one step:
+ * <ul>
+ *     <li>{@link Step#REMOVE}: remove the team and the score</li>
+ *     <li>{@link Step#CREATE}: create the score and the team, with the line as prefix</li>
+ *     <li>{@link Step#UPDATE}: update the prefix of the team</li>
+ * </ul>
+ * Removals are planned first, followed by creations and updates in ascending score order.
+ * Lines are compared by their fingerprints.
+ */
+final class TeamLinePlanner {
+
+    enum Step {
+        CREATE,
+        UPDATE,
+        REMOVE
+    }
+
+    @FunctionalInterface
+    interface StepConsumer {
+
+        void accept(Step step, int score);
+
+    }
+
+    static void planLines(List<TeamLine> oldLines, List<TeamLine> newLines, StepConsumer consumer) {
+        planLines(TeamLine.fingerprints(oldLines), newLines, consumer);
+    }
+
+    /**
+     * Like {@link #planLines(List, List, StepConsumer)}, but with the old lines given by their fingerprints only.
+     */
+    static void planLines(long[] oldFingerprints, List<TeamLine> newLines, StepConsumer consumer) {
+        for (int score = oldFingerprints.length - 1; score >= newLines.size(); score--) {
+            consumer.accept(Step.REMOVE, score);
+        }
+
+        for (int score = oldFingerprints.length; score < newLines.size(); score++) {
+            consumer.accept(Step.CREATE, score);
+        }
+
+        for (int score = 0; score < Math.min(oldFingerprints.length, newLines.size()); score++) {
+            if (oldFingerprints[oldFingerprints.length - score - 1] != getLineByScore(newLines, score).fingerprint()) {
+                consumer.accept(Step.UPDATE, score);
+            }
+        }
+    }
+
+    static boolean needsObjectiveUpdate(@Nullable Component oldTitle, Component newTitle,
+                                        ComponentUtils.@Nullable NumberFormat oldFormat, ComponentUtils.@Nullable NumberFormat newFormat) {
+        return !Objects.equals(oldTitle, newTitle) || !Objects.equals(oldFormat, newFormat);
+    }
+
+    private static TeamLine getLineByScore(List<TeamLine> lines, int score) {
+        return lines.get(lines.size() - score - 1);
+    }
+
+    private TeamLinePlanner() {}
+
+}
@@ -0,0 +1,106 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import de.timongcraft.veloboard.utils.LruCache;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A process-wide cache of translated components, shared by all boards.
+ *
+ * <p>Components without any {@link TranslatableComponent} are returned as they are, without a lookup.
+ * Other components are translated once per locale, so a player changing their locale simply uses other entries.
+ *
+ * <p><b>Note</b>: Call {@link #clear()} after changing the sources of the {@link net.kyori.adventure.translation.GlobalTranslator}.
+ */
+@SuppressWarnings("unused")
+public final class TranslationCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private static final LruCache<Key, Component> TRANSLATIONS = new LruCache<>(DEFAULT_MAXIMUM_SIZE);
+
+    /**
+     * Translates the component in the locale of the player, like {@link ConnectedPlayer#translateMessage(Component)}.
+     */
+    public static Component translate(ConnectedPlayer player, Component component) {
+        if (!containsTranslatable(component)) {
+            return component;
+        }
+
+        return translate(player, component, ComponentFingerprint.of(component), true);
+    }
+
+    /**
+     * Like {@link #translate(ConnectedPlayer, Component)}, but with the fingerprint and the result of
+     * {@link #containsTranslatable(Component)} computed once when the line was set, so neither walks the component again.
+     */
+    static Component translate(ConnectedPlayer player, Component component, long fingerprint, boolean translatable) {
+        if (!translatable) {
+            return component;
+        }
+
+        return TRANSLATIONS.get(new Key(component, fingerprint, player.getEffectiveLocale()), key -> player.translateMessage(key.component()));
+    }
+
+    /**
+     * @return whether the component or any of its children, arguments or hover texts need to be translated
+     */
+    public static boolean containsTranslatable(Component component) {
+        if (component instanceof TranslatableComponent) {
+            return true;
+        }
+
+        HoverEvent<?> hoverEvent = component.style().hoverEvent();
+        if (hoverEvent != null && hoverEvent.value() instanceof Component hoverText && containsTranslatable(hoverText)) {
+            return true;
+        }
+
+        for (Component child : component.children()) {
+            if (containsTranslatable(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static void setMaximumSize(int maximumSize) {
+        TRANSLATIONS.setMaximumSize(maximumSize);
+    }
+
+    public static void clear() {
+        TRANSLATIONS.clear();
+    }
+
+    public static ComponentCache.Stats stats() {
+        return new ComponentCache.Stats(TRANSLATIONS.hits(), TRANSLATIONS.misses(), TRANSLATIONS.evictions(), TRANSLATIONS.size());
+    }
+
+    /**
+     * Hashed by the fingerprint instead of the component, which would walk the whole component on every lookup.
+     */
+    private record Key(Component component, long fingerprint, @Nullable Locale locale) {
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key &&
+                    fingerprint == key.fingerprint &&
+                    Objects.equals(locale, key.locale) &&
+                    component.equals(key.component);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(fingerprint) + Objects.hashCode(locale);
+        }
+
+    }
+
+    private TranslationCache() {}
+
+}
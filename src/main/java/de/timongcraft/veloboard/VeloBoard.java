@@ -1,6 +1,9 @@
 package de.timongcraft.veloboard;
 
+import com.velocitypowered.api.network.ProtocolVersion;
 import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
 import de.timongcraft.veloboard.utils.ListUtils;
 import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
 import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
@@ -20,7 +23,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static com.velocitypowered.api.network.ProtocolVersion.MINECRAFT_1_20_3;
 
@@ -29,11 +35,39 @@ public class VeloBoard extends AbstractBoard {
 
     private static final String[] COLOR_CODES = {"§0", "§1", "§2", "§3", "§4", "§5", "§6", "§7", "§8", "§9", "§a", "§b", "§c", "§d", "§e", "§f", "§k", "§l", "§m", "§n", "§o", "§r"};
     public static final int MAX_LINES_SIZE = COLOR_CODES.length;
+    private static final List<List<String>> TEAM_ENTRIES = Arrays.stream(COLOR_CODES).map(Collections::singletonList).toList();
+    /**
+     * Shared by all team packets, must never be modified.
+     */
+    private static final EnumSet<UpdateTeamsPacket.FriendlyFlag> NO_FRIENDLY_FLAGS = EnumSet.noneOf(UpdateTeamsPacket.FriendlyFlag.class);
 
+    private static final long[] NO_LINES = {};
+
+    private final String[] teamNames;
+    /**
+     * Whether the lines are shown as display names of their scores (1.20.3+), instead of as prefixes of a team per line.
+     */
+    private final boolean displayNameScores;
     private Component title;
+    /**
+     * The serialized title, if it was set by an animation.
+     */
+    private @Nullable ComponentHolder titleHolder;
     @Since(MINECRAFT_1_20_3)
     private @Nullable ComponentUtils.NumberFormat defaultNumberFormat;
-    private final List<Component> lines = new ArrayList<>();
+    /**
+     * Replaced on every change, so that snapshots can share it.
+     */
+    private List<TeamLine> lines = List.of();
+    /**
+     * The fingerprints of the lines as known by the client while updates are deferred to the {@link BoardScheduler},
+     * so that the replaced lines don't have to be retained until the flush.
+     */
+    private long @Nullable [] pendingBaseFingerprints;
+    private boolean pendingObjectiveUpdate = false;
+    private @Nullable Component pendingBaseTitle;
+    private ComponentUtils.@Nullable NumberFormat pendingBaseNumberFormat;
+    private volatile BoardSnapshot<Component> snapshot;
 
     public VeloBoard(Player player) {
         this(player, Component.empty());
@@ -46,55 +80,157 @@ public class VeloBoard extends AbstractBoard {
     @Since(MINECRAFT_1_20_3)
     public VeloBoard(Player player, Component title, @Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
         super(player);
+        this.teamNames = createTeamNames(id);
+        this.displayNameScores = player.getProtocolVersion().getProtocol() >= MINECRAFT_1_20_3.getProtocol();
         this.title = Objects.requireNonNull(title, "title");
-        this.defaultNumberFormat = defaultNumberFormat != null ? defaultNumberFormat.compiled(player.getProtocolVersion()) : null;
+        this.defaultNumberFormat = ComponentCache.numberFormat(player.getProtocolVersion(), defaultNumberFormat);
+        this.snapshot = new BoardSnapshot<>(0, this.title, List.of(), this.defaultNumberFormat);
     }
 
     public void initialize() {
-        withLock(() -> {
+        withBatch(() -> {
             sendObjectivePacket(UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD);
-            sendPacket(new DisplayObjectivePacket(1, id));
+            sendPacket(new DisplayObjectivePacket(1, objectiveIdUnsafe()));
+            setShownUnsafe(true);
         });
     }
 
     public void resend() {
-        withLock(() -> {
+        withBatch(() -> {
             clear();
             initialize();
+            pendingBaseFingerprints = null;
+            pendingBaseTitle = null;
+            pendingBaseNumberFormat = null;
+            pendingObjectiveUpdate = false;
 
-            for (int i = 0; i < lines.size(); ++i) {
-                sendScorePacketUnchecked(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
-                sendTeamPacketUnchecked(i, UpdateTeamsPacket.Mode.CREATE_TEAM, getLineByScore(lines, i));
+            sendLinesDiffUnsafe(NO_LINES);
+        });
+    }
+
+    @Override
+    public void resync() {
+        withBatch(() -> {
+            if (!canResyncUnsafe()) {
+                resend();
+                return;
             }
+
+            pendingBaseFingerprints = null;
+            pendingBaseTitle = null;
+            pendingBaseNumberFormat = null;
+            pendingObjectiveUpdate = false;
+
+            replayFullStateUnsafe(() -> {
+                initialize();
+                sendLinesDiffUnsafe(NO_LINES);
+            });
         });
     }
 
+    /**
+     * Runs all changes made by the action as one update: packets are queued and flushed to the player at once.
+     *
+     * <p>Example: {@code board.batch(b -> { b.updateTitle(title); b.updateLines(lines); })}
+     */
+    public void batch(Consumer<VeloBoard> action) {
+        Objects.requireNonNull(action, "action");
+        withBatch(() -> action.accept(this));
+    }
+
+    /**
+     * Like {@link #batch(Consumer)}, but completes the returned future once the changes were sent.
+     * On an {@link #setEventLoopConfined(boolean) event loop confined} board the action runs on the player's event loop.
+     */
+    public CompletableFuture<Void> batchAsync(Consumer<VeloBoard> action) {
+        Objects.requireNonNull(action, "action");
+        return withBatchAsync(() -> action.accept(this));
+    }
+
+    /**
+     * @see #resend()
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> resendAsync() {
+        return withBatchAsync(this::resend);
+    }
+
+    /**
+     * @see #updateLine(int, Component)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> updateLineAsync(int lineIndex, Component lineText) {
+        return withBatchAsync(() -> updateLine(lineIndex, lineText));
+    }
+
+    /**
+     * @see #updateLines(Collection)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> updateLinesAsync(Collection<Component> lines) {
+        return withBatchAsync(() -> updateLines(lines));
+    }
+
+    /**
+     * @see #updateTitle(Component)
+     * @see #batchAsync(Consumer)
+     */
+    public CompletableFuture<Void> updateTitleAsync(Component title) {
+        return withBatchAsync(() -> updateTitle(title));
+    }
+
     @Override
     public void clear() {
-        withLock(() -> {
-            for (int i = 0; i < this.lines.size(); ++i) {
-                sendTeamPacketUnchecked(i, UpdateTeamsPacket.Mode.REMOVE_TEAM);
+        withBatch(() -> {
+            if (!displayNameScores) {
+                int clientLinesSize = pendingBaseFingerprints != null ? pendingBaseFingerprints.length : this.lines.size();
+                for (int i = 0; i < clientLinesSize; ++i) {
+                    sendTeamPacketUnchecked(i, UpdateTeamsPacket.Mode.REMOVE_TEAM);
+                }
             }
 
             sendObjectivePacket(UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD);
+            setShownUnsafe(false);
         });
     }
 
     @Override
     public void delete() {
-        withLock(() -> {
+        withLockAwaiting(() -> {
             super.delete();
             title = null;
-            lines.clear();
+            titleHolder = null;
+            lines = List.of();
+            pendingBaseFingerprints = null;
             defaultNumberFormat = null;
         });
     }
 
+    /**
+     * Returns the current state of the board, without taking the lock.
+     *
+     * @see #batchIfUnchanged(long, Consumer)
+     */
+    public BoardSnapshot<Component> getSnapshot() {
+        checkNotDeleted();
+        return snapshot;
+    }
+
+    /**
+     * Like {@link #batch(Consumer)}, but only runs the action if the board wasn't changed since the snapshot with the version was published.
+     *
+     * <p>Example: {@code board.batchIfUnchanged(snapshot.version(), b -> b.updateLine(0, next(snapshot.getLine(0))))}
+     *
+     * @return whether the action ran
+     * @see #getSnapshot()
+     */
+    public boolean batchIfUnchanged(long version, Consumer<VeloBoard> action) {
+        Objects.requireNonNull(action, "action");
+        return withBatchIfUnchanged(version, () -> action.accept(this));
+    }
+
     public Component getLine(int lineIndex) {
-        return withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, true, false);
-            return lines.get(lineIndex);
-        });
+        return getSnapshot().getLine(lineIndex);
     }
 
     /**
@@ -103,33 +239,81 @@ public class VeloBoard extends AbstractBoard {
      */
     public void updateLine(int lineIndex, Component lineText) {
         Objects.requireNonNull(lineText, "lineText");
-        withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, false, true);
+        checkLineIndex(lineIndex);
+        withBatch(() -> setLineUnsafe(lineIndex, TeamLine.of(lineText)));
+    }
 
-            if (lineIndex < lines.size()) {
-                lines.set(lineIndex, lineText);
-                sendLineChangeUnsafe(getScoreByLineUnsafe(lineIndex));
+    /**
+     * Updates the line to the template with its slots filled.
+     * On 1.20.3+ clients only the values are serialized, spliced into the template serialized once per protocol version;
+     * older clients get the line as a team prefix, which is always serialized as a whole.
+     *
+     * <p>Example: {@code board.updateLine(0, coinsTemplate, Map.of("coins", coins))}
+     *
+     * @param values the values by slot name, converted with {@link String#valueOf(Object)}
+     * @throws IllegalArgumentException if a slot has no value or a value has no slot
+     */
+    public void updateLine(int lineIndex, LineTemplate template, Map<String, ?> values) {
+        Objects.requireNonNull(template, "template");
+        String[] slotValues = template.values(values);
+        checkLineIndex(lineIndex);
+        withBatch(() -> {
+            long fingerprint = template.fingerprint(slotValues);
+            if (lineIndex < lines.size() && lines.get(lineIndex).fingerprint() == fingerprint) {
+                recordUpdates(0, 1);
                 return;
             }
 
-            List<Component> newLines = new ArrayList<>(lines);
-            ListUtils.setOrPad(newLines, lineIndex, lineText, Component::empty);
-            updateLines(newLines);
+            setLineUnsafe(lineIndex, new TeamLine(template.fill(slotValues), fingerprint, template.isTranslatable(), new LineTemplate.Filled(template, slotValues)));
         });
     }
 
+    private void setLineUnsafe(int lineIndex, TeamLine line) {
+        if (lineIndex < lines.size()) {
+            if (line.isSame(lines.get(lineIndex))) {
+                recordUpdates(0, 1);
+                return;
+            }
+
+            stateChangedUnsafe();
+            if (deferUpdateUnsafe()) {
+                if (pendingBaseFingerprints == null) pendingBaseFingerprints = TeamLine.fingerprints(lines);
+                storeLineUnsafe(lineIndex, line);
+                return;
+            }
+
+            storeLineUnsafe(lineIndex, line);
+            if (pendingBaseFingerprints != null) {
+                // lines were set silently, so the client's lines differ in more than this line
+                long[] oldFingerprints = pendingBaseFingerprints;
+                pendingBaseFingerprints = null;
+                sendLinesChangeUnsafe(oldFingerprints);
+                return;
+            }
+
+            sendLineChangeUnsafe(getScoreByLineUnsafe(lineIndex));
+            recordUpdates(1, 0);
+            return;
+        }
+
+        List<TeamLine> newLines = new ArrayList<>(lines);
+        ListUtils.setOrPad(newLines, lineIndex, line, () -> TeamLine.EMPTY);
+        applyLinesUnsafe(newLines);
+    }
+
     public void removeLine(int lineIndex) {
-        withLock(() -> {
-            checkLineIndexUnsafe(lineIndex, true, true);
-            List<Component> newLines = new ArrayList<>(lines);
+        checkLineIndex(lineIndex);
+        withBatch(() -> {
+            checkLineInRangeUnsafe(lineIndex);
+            List<TeamLine> newLines = new ArrayList<>(lines);
 
             newLines.remove(lineIndex);
-            updateLines(newLines);
+            applyLinesUnsafe(newLines);
         });
     }
 
     /**
-     * Returns an immutable view of the lines.
+     * Returns an immutable view of the lines, from the current {@link #getSnapshot() snapshot}.
      *
      * <p>Note: To perform mutable operations on the lines, use {@link #updateLine(int, Component)},
      * {@link #updateLines(Component...)}, {@link #updateLines(Collection)}, or {@link #updateLinesSilent(Collection)}
@@ -138,11 +322,11 @@ public class VeloBoard extends AbstractBoard {
      */
     @Unmodifiable
     public List<Component> getLinesCopy() {
-        return withLock(() -> List.copyOf(lines));
+        return getSnapshot().lines();
     }
 
     public int linesSize() {
-        return withLock(lines::size);
+        return getSnapshot().lines().size();
     }
 
     /**
@@ -157,35 +341,8 @@ public class VeloBoard extends AbstractBoard {
         for (Component component : lines) {
             Objects.requireNonNull(component, "lines contain null element");
         }
-        withLock(() -> {
-            checkLineIndexUnsafe(lines.size(), false, true);
-
-            List<Component> oldLines = new ArrayList<>(this.lines);
-
-            this.lines.clear();
-            this.lines.addAll(lines);
-
-            if (oldLines.size() != this.lines.size()) {
-                for (int i = 0; i < this.lines.size(); i++) {
-                    if (i >= oldLines.size()) {
-                        sendScorePacketUnchecked(i, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
-                        sendTeamPacketUnchecked(i, UpdateTeamsPacket.Mode.CREATE_TEAM);
-                    }
-                    sendLineChangeUnsafe(i);
-                }
-
-                for (int i = this.lines.size(); i < oldLines.size(); i++) {
-                    sendTeamPacketUnchecked(i, UpdateTeamsPacket.Mode.REMOVE_TEAM);
-                    sendScorePacketUnchecked(i, UpdateScorePacket.Action.REMOVE_SCORE);
-                }
-            }
-
-            for (int i = 0; i < this.lines.size(); ++i) {
-                if (!Objects.equals(getLineByScore(oldLines, i), getLineByScore(this.lines, i))) {
-                    sendLineChangeUnsafe(i);
-                }
-            }
-        });
+        checkLineIndex(lines.size());
+        withBatch(() -> applyLinesUnsafe(TeamLine.of(lines)));
     }
 
     /**
@@ -206,34 +363,52 @@ public class VeloBoard extends AbstractBoard {
             Objects.requireNonNull(component, "lines contain null element");
         }
         withLock(() -> {
-            this.lines.clear();
-            this.lines.addAll(lines);
+            // the client still shows its lines, so the next visible change is diffed against them
+            if (pendingBaseFingerprints == null) pendingBaseFingerprints = TeamLine.fingerprints(this.lines);
+            storeLinesUnsafe(TeamLine.of(lines));
+            stateChangedUnsafe();
         });
     }
 
     public Component getTitle() {
-        return withLock(() -> title);
+        return getSnapshot().title();
     }
 
     public void updateTitle(Component title) {
         Objects.requireNonNull(title, "title");
         withLock(() -> {
+            if (title.equals(this.title)) {
+                recordUpdates(0, 1);
+                return;
+            }
+
+            Component oldTitle = this.title;
             this.title = title;
-            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            titleHolder = null;
+            stateChangedUnsafe();
+            sendObjectiveUpdateUnsafe(oldTitle, defaultNumberFormat);
         });
     }
 
     @Since(MINECRAFT_1_20_3)
     public @Nullable ComponentUtils.NumberFormat getNumberFormat() {
-        return withLock(() -> defaultNumberFormat);
+        return getSnapshot().numberFormat();
     }
 
     @Since(MINECRAFT_1_20_3)
     public void setNumberFormat(@Nullable ComponentUtils.NumberFormat defaultNumberFormat) {
         withLock(() -> {
-            this.defaultNumberFormat = defaultNumberFormat != null ? defaultNumberFormat.compiled(player.getProtocolVersion()) : null;
+            ComponentUtils.NumberFormat oldNumberFormat = this.defaultNumberFormat;
+            ComponentUtils.NumberFormat newNumberFormat = ComponentCache.numberFormat(player.getProtocolVersion(), defaultNumberFormat);
+            if (Objects.equals(oldNumberFormat, newNumberFormat)) {
+                recordUpdates(0, 1);
+                return;
+            }
 
-            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            this.defaultNumberFormat = newNumberFormat;
+            stateChangedUnsafe();
+
+            sendObjectiveUpdateUnsafe(title, oldNumberFormat);
         });
     }
 
@@ -248,43 +423,239 @@ public class VeloBoard extends AbstractBoard {
         return player.translateMessage(component);
     }
 
-    private void checkLineIndexUnsafe(int lineIndex, boolean checkInRange, boolean checkMax) {
+    /**
+     * Checks the line index before the change is handed to the event loop of a {@link #setEventLoopConfined(boolean) confined} board,
+     * so that invalid arguments are thrown to the caller.
+     */
+    private static void checkLineIndex(int lineIndex) {
         if (lineIndex < 0) {
             throw new IllegalArgumentException("Line index must be non-negative");
         }
 
-        if (checkInRange && lineIndex >= lines.size()) {
-            throw new IllegalArgumentException("Line index must be within the valid range (index >= 0 && index < " + lines.size() + ")");
-        }
-
-        if (checkMax && lineIndex >= MAX_LINES_SIZE) {
+        if (lineIndex >= MAX_LINES_SIZE) {
             throw new IllegalArgumentException("Line index " + lineIndex + " must be less than " + MAX_LINES_SIZE + "." +
                     "For unlimited* lines, use SimpleBoard instead.");
         }
     }
 
+    private void checkLineInRangeUnsafe(int lineIndex) {
+        if (lineIndex >= lines.size()) {
+            throw new IllegalArgumentException("Line index must be within the valid range (index >= 0 && index < " + lines.size() + ")");
+        }
+    }
+
     private int getScoreByLineUnsafe(int lineIndex) {
         return lines.size() - lineIndex - 1;
     }
 
-    private static @Nullable Component getLineByScore(List<Component> lines, int score) {
-        if (score < lines.size()) {
-            return lines.get(lines.size() - score - 1);
-        } else {
-            return null;
+    private static TeamLine getLineByScore(List<TeamLine> lines, int score) {
+        return lines.get(lines.size() - score - 1);
+    }
+
+    private void applyLinesUnsafe(List<TeamLine> newLines) {
+        stateChangedUnsafe();
+        if (deferUpdateUnsafe()) {
+            if (pendingBaseFingerprints == null) pendingBaseFingerprints = TeamLine.fingerprints(lines);
+            storeLinesUnsafe(newLines);
+            return;
+        }
+
+        long[] oldFingerprints = pendingBaseFingerprints != null ? pendingBaseFingerprints : TeamLine.fingerprints(lines);
+        pendingBaseFingerprints = null;
+
+        storeLinesUnsafe(newLines);
+
+        sendLinesChangeUnsafe(oldFingerprints);
+    }
+
+    private void storeLineUnsafe(int lineIndex, TeamLine line) {
+        TeamLine[] newLines = lines.toArray(TeamLine[]::new);
+        newLines[lineIndex] = isCompactStorage() ? line.intern() : line;
+        lines = List.of(newLines);
+    }
+
+    private void storeLinesUnsafe(List<TeamLine> newLines) {
+        lines = isCompactStorage() ? newLines.stream().map(TeamLine::intern).toList() : List.copyOf(newLines);
+    }
+
+    @Override
+    protected void setProvidedLinesUnsafe(List<Component> lines) {
+        checkLineIndex(lines.size());
+        applyLinesUnsafe(TeamLine.of(lines));
+    }
+
+    @Override
+    protected void setProvidedLineUnsafe(int lineIndex, Component line) {
+        setLineUnsafe(lineIndex, TeamLine.of(line));
+    }
+
+    @Override
+    protected void setTitleFrameUnsafe(Animation animation, int frame) {
+        Component oldTitle = title;
+        title = animation.getFrame(frame);
+        titleHolder = frameHolder(animation, frame);
+        stateChangedUnsafe();
+        sendObjectiveUpdateUnsafe(oldTitle, defaultNumberFormat);
+    }
+
+    @Override
+    protected void setLineFrameUnsafe(int lineIndex, Animation animation, int frame) {
+        setLineUnsafe(lineIndex, new TeamLine(animation.getFrame(frame), animation.getFingerprint(frame), animation.isTranslatable(), new Animation.Frame(animation, frame)));
+    }
+
+    @Override
+    protected void checkAnimatedLineIndex(int lineIndex) {
+        checkLineIndex(lineIndex);
+    }
+
+    @Override
+    protected void publishSnapshotUnsafe(long version) {
+        snapshot = new BoardSnapshot<>(version, title, ListUtils.mappedView(lines, TeamLine::component), defaultNumberFormat);
+    }
+
+    @Override
+    protected void compactLinesUnsafe() {
+        storeLinesUnsafe(lines);
+        // same content, so the version stays
+        publishSnapshotUnsafe(snapshot.version());
+    }
+
+    @Override
+    protected long retainedSizeOfStateUnsafe() {
+        long size = RetainedSize.array(teamNames.length, RetainedSize.REFERENCE) + RetainedSize.component(title);
+        for (String teamName : teamNames) {
+            size += RetainedSize.string(teamName);
+        }
+
+        // the lines, shared with the snapshot and its view
+        size += RetainedSize.list(lines.size()) + RetainedSize.object(4, 8) + RetainedSize.object(2, 0);
+        if (!isCompactStorage()) {
+            for (TeamLine line : lines) {
+                size += RetainedSize.object(1, 8) + RetainedSize.component(line.component());
+            }
+        }
+
+        if (pendingBaseFingerprints != null) size += RetainedSize.array(pendingBaseFingerprints.length, 8);
+        return size;
+    }
+
+    @Override
+    protected void flushPendingUnsafe() {
+        if (pendingObjectiveUpdate) {
+            pendingObjectiveUpdate = false;
+            sendObjectiveChangeUnsafe(pendingBaseTitle, pendingBaseNumberFormat);
+            pendingBaseTitle = null;
+            pendingBaseNumberFormat = null;
+        }
+
+        if (pendingBaseFingerprints != null) {
+            long[] oldFingerprints = pendingBaseFingerprints;
+            pendingBaseFingerprints = null;
+            sendLinesChangeUnsafe(oldFingerprints);
+        }
+    }
+
+    private void sendLinesChangeUnsafe(long[] oldFingerprints) {
+        // teams are global and can't be double buffered, so only display-name scores are swapped
+        if (displayNameScores && isDoubleBuffered()) {
+            int[] plannedLines = {0};
+            TeamLinePlanner.planLines(oldFingerprints, lines, (step, score) -> plannedLines[0]++);
+            if (shouldSwapUnsafe(plannedLines[0], lines.size())) {
+                swapUnsafe();
+                recordUpdates(lines.size(), 0);
+                return;
+            }
         }
+
+        sendLinesDiffUnsafe(oldFingerprints);
+    }
+
+    /**
+     * Sends the changed lines in place, without considering a swap: for full sends, which build the objective from scratch anyway.
+     */
+    private void sendLinesDiffUnsafe(long[] oldFingerprints) {
+        int[] changedLines = {0};
+        TeamLinePlanner.planLines(oldFingerprints, lines, (step, score) -> {
+            changedLines[0]++;
+            switch (step) {
+                case REMOVE -> {
+                    if (!displayNameScores) sendTeamPacketUnchecked(score, UpdateTeamsPacket.Mode.REMOVE_TEAM);
+                    sendScorePacketUnchecked(score, UpdateScorePacket.Action.REMOVE_SCORE);
+                }
+                case CREATE -> {
+                    if (displayNameScores) {
+                        sendDisplayNameScoreUnchecked(score);
+                    } else {
+                        sendScorePacketUnchecked(score, UpdateScorePacket.Action.CREATE_OR_UPDATE_SCORE);
+                        sendTeamPacketUnchecked(score, UpdateTeamsPacket.Mode.CREATE_TEAM, getLineByScore(lines, score));
+                    }
+                }
+                case UPDATE -> sendLineChangeUnsafe(score);
+            }
+        });
+        recordUpdates(changedLines[0], Math.max(oldFingerprints.length, lines.size()) - changedLines[0]);
+    }
+
+    /**
+     * Builds the lines on the hidden objective, shows it and removes the previously shown objective with all its scores.
+     */
+    @Since(MINECRAFT_1_20_3)
+    private void swapUnsafe() {
+        String shownObjectiveId = swapObjectiveIdUnsafe();
+        sendObjectivePacket(UpdateObjectivesPacket.Mode.CREATE_SCOREBOARD);
+        for (int score = 0; score < lines.size(); score++) {
+            sendDisplayNameScoreUnchecked(score);
+        }
+        sendPacket(new DisplayObjectivePacket(1, objectiveIdUnsafe()));
+        sendObjectivePacket(shownObjectiveId, UpdateObjectivesPacket.Mode.REMOVE_SCOREBOARD);
     }
 
     private void sendLineChangeUnsafe(int score) {
+        if (displayNameScores) {
+            sendDisplayNameScoreUnchecked(score);
+            return;
+        }
+
         sendTeamPacketUnchecked(score, UpdateTeamsPacket.Mode.UPDATE_TEAM_INFO, getLineByScore(lines, score));
     }
 
+    private void sendObjectiveUpdateUnsafe(Component oldTitle, ComponentUtils.@Nullable NumberFormat oldNumberFormat) {
+        if (deferUpdateUnsafe()) {
+            if (!pendingObjectiveUpdate) {
+                pendingObjectiveUpdate = true;
+                pendingBaseTitle = oldTitle;
+                pendingBaseNumberFormat = oldNumberFormat;
+            }
+            return;
+        }
+
+        sendObjectiveChangeUnsafe(oldTitle, oldNumberFormat);
+    }
+
+    private void sendObjectiveChangeUnsafe(Component oldTitle, ComponentUtils.@Nullable NumberFormat oldNumberFormat) {
+        if (TeamLinePlanner.needsObjectiveUpdate(oldTitle, title, oldNumberFormat, defaultNumberFormat)) {
+            sendObjectivePacket(UpdateObjectivesPacket.Mode.UPDATE_SCOREBOARD);
+            recordUpdates(1, 0);
+        } else {
+            recordUpdates(0, 1);
+        }
+    }
+
     private void sendObjectivePacket(UpdateObjectivesPacket.Mode mode) {
+        sendObjectivePacket(objectiveIdUnsafe(), mode);
+    }
+
+    private void sendObjectivePacket(String objectiveId, UpdateObjectivesPacket.Mode mode) {
+        if (titleHolder != null) {
+            sendPacket(new UpdateObjectivesPacket(objectiveId, mode, titleHolder, UpdateObjectivesPacket.Type.INTEGER, defaultNumberFormat));
+            return;
+        }
+
         sendPacket(
                 new UpdateObjectivesPacket(
-                        id,
+                        objectiveId,
                         mode,
-                        player.translateMessage(title),
+                        translate(title),
                         UpdateObjectivesPacket.Type.INTEGER,
                         defaultNumberFormat
                 )
@@ -292,40 +663,64 @@ public class VeloBoard extends AbstractBoard {
     }
 
     private void sendScorePacketUnchecked(int score, UpdateScorePacket.Action action) {
-        sendPacket(
-                action != UpdateScorePacket.Action.REMOVE_SCORE || player.getProtocolVersion().getProtocol() < MINECRAFT_1_20_3.getProtocol() ?
-                        new UpdateScorePacket(
-                                COLOR_CODES[score],
-                                action,
-                                id,
-                                score
-                        )
-                        :
-                        new ResetScorePacket(
-                                COLOR_CODES[score],
-                                id
-                        )
-        );
+        sendPacket(createScorePacket(player.getProtocolVersion(), objectiveIdUnsafe(), score, action));
+    }
+
+    /**
+     * Creates or updates the score of the line with the line as its display name, using the objective's number format.
+     */
+    @Since(MINECRAFT_1_20_3)
+    private void sendDisplayNameScoreUnchecked(int score) {
+        TeamLine line = lines.get(lines.size() - score - 1);
+        sendPacket(new UpdateScorePacket(COLOR_CODES[score], objectiveIdUnsafe(), score, line.holder(player), null));
     }
 
     private void sendTeamPacketUnchecked(int score, UpdateTeamsPacket.Mode mode) {
-        sendTeamPacketUnchecked(score, mode, Component.empty());
+        sendPacket(createTeamPacket(teamNames[score], score, mode, Component.empty()));
     }
 
-    private void sendTeamPacketUnchecked(int score, UpdateTeamsPacket.Mode mode, Component teamPrefix) {
-        sendPacket(
-                new UpdateTeamsPacket(
-                        id + ':' + score,
-                        mode,
-                        Component.empty(),
-                        EnumSet.noneOf(UpdateTeamsPacket.FriendlyFlag.class),
-                        UpdateTeamsPacket.NameTagVisibility.ALWAYS,
-                        UpdateTeamsPacket.CollisionRule.ALWAYS,
-                        NamedTextColor.BLACK,
-                        player.translateMessage(teamPrefix),
-                        Component.empty(),
-                        Collections.singletonList(COLOR_CODES[score])
+    private void sendTeamPacketUnchecked(int score, UpdateTeamsPacket.Mode mode, TeamLine line) {
+        sendPacket(createTeamPacket(teamNames[score], score, mode, line.translated(player)));
+    }
+
+    static MinecraftPacket createScorePacket(ProtocolVersion version, String objectiveId, int score, UpdateScorePacket.Action action) {
+        return action != UpdateScorePacket.Action.REMOVE_SCORE || version.getProtocol() < MINECRAFT_1_20_3.getProtocol() ?
+                new UpdateScorePacket(
+                        COLOR_CODES[score],
+                        action,
+                        objectiveId,
+                        score
                 )
+                :
+                new ResetScorePacket(
+                        COLOR_CODES[score],
+                        objectiveId
+                );
+    }
+
+    /**
+     * @return the names of the teams of the lines by their score
+     */
+    static String[] createTeamNames(String objectiveId) {
+        String[] teamNames = new String[MAX_LINES_SIZE];
+        for (int score = 0; score < MAX_LINES_SIZE; score++) {
+            teamNames[score] = objectiveId + ':' + score;
+        }
+        return teamNames;
+    }
+
+    static UpdateTeamsPacket createTeamPacket(String teamName, int score, UpdateTeamsPacket.Mode mode, Component translatedPrefix) {
+        return new UpdateTeamsPacket(
+                teamName,
+                mode,
+                Component.empty(),
+                NO_FRIENDLY_FLAGS,
+                UpdateTeamsPacket.NameTagVisibility.ALWAYS,
+                UpdateTeamsPacket.CollisionRule.ALWAYS,
+                NamedTextColor.BLACK,
+                translatedPrefix,
+                Component.empty(),
+                TEAM_ENTRIES.get(score)
         );
     }
 
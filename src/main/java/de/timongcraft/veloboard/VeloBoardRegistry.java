@@ -1,5 +1,6 @@
 package de.timongcraft.veloboard;
 
+import com.velocitypowered.api.proxy.ProxyServer;
 import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
 import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
 import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
@@ -30,4 +31,15 @@ public class VeloBoardRegistry {
         }
     }
 
+    /**
+     * Registers listeners that resync all shown boards of a player after they switched the backend server
+     * (see {@link AbstractBoard#resync()} and {@link BroadcastBoard#resync(com.velocitypowered.api.proxy.Player)}).
+     * Boards are only tracked for this once it was called, so call it in the {@code ProxyInitializeEvent} as well.
+     *
+     * @param plugin the plugin instance registering the listeners
+     */
+    public static void registerResync(Object plugin, ProxyServer proxyServer) {
+        BoardResync.register(plugin, proxyServer);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package de.timongcraft.veloboard;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Notifies the boards waiting for the channel of a player to become writable again, from Netty's writability events.
+ *
+ * <p>A listener is added to the pipeline once per connection, when a board first has to wait for it.
+ * It is only accessed on the channel's event loop, so it needs no synchronization.
+ * Boards are notified in a separate task, as the event may be fired while a board is writing (and holding its lock).
+ */
+final class WritabilityListener extends ChannelInboundHandlerAdapter {
+
+    private static final String NAME = "veloboard-writability";
+
+    private final Set<AbstractBoard> waitingBoards = new LinkedHashSet<>();
+
+    /**
+     * Calls {@link AbstractBoard#writabilityRestored()} on the channel's event loop once the channel is writable (or closed),
+     * which may be right away if it already is again.
+     */
+    static void await(Channel channel, AbstractBoard board) {
+        EventLoop eventLoop = channel.eventLoop();
+        if (!eventLoop.inEventLoop()) {
+            eventLoop.execute(() -> await(channel, board));
+            return;
+        }
+
+        if (channel.isWritable() || !channel.isActive()) {
+            eventLoop.execute(board::writabilityRestored);
+            return;
+        }
+
+        WritabilityListener listener = (WritabilityListener) channel.pipeline().get(NAME);
+        if (listener == null) {
+            listener = new WritabilityListener();
+            channel.pipeline().addFirst(NAME, listener);
+        }
+        listener.waitingBoards.add(board);
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (ctx.channel().isWritable()) {
+            notifyBoards(ctx.channel().eventLoop());
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        notifyBoards(ctx.channel().eventLoop());
+        super.channelInactive(ctx);
+    }
+
+    private void notifyBoards(EventLoop eventLoop) {
+        if (waitingBoards.isEmpty()) return;
+
+        // boards may have to wait again while sending their changes
+        List<AbstractBoard> boards = List.copyOf(waitingBoards);
+        waitingBoards.clear();
+        eventLoop.execute(() -> boards.forEach(AbstractBoard::writabilityRestored));
+    }
+
+}
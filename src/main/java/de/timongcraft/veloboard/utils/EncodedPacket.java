@@ -0,0 +1,77 @@
+package de.timongcraft.veloboard.utils;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * A packet that is encoded once for a protocol version and can then be written to any number of connections
+ * using that version, without being encoded again for each of them.
+ */
+@ApiStatus.Internal
+public final class EncodedPacket {
+
+    private final MinecraftPacket packet;
+    private final ProtocolVersion version;
+    private final byte[] bytes;
+
+    private EncodedPacket(MinecraftPacket packet, ProtocolVersion version, byte[] bytes) {
+        this.packet = packet;
+        this.version = version;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encodes the packet (id and body) for the play state of the given version.
+     *
+     * @throws IllegalArgumentException if the packet is not registered for the version
+     */
+    public static EncodedPacket encode(MinecraftPacket packet, ProtocolVersion version) {
+        int packetId = StateRegistry.PLAY.getProtocolRegistry(ProtocolUtils.Direction.CLIENTBOUND, version).getPacketId(packet);
+
+        ByteBuf buf = Unpooled.buffer();
+        try {
+            ProtocolUtils.writeVarInt(buf, packetId);
+            packet.encode(buf, ProtocolUtils.Direction.CLIENTBOUND, version);
+
+            byte[] bytes = new byte[buf.readableBytes()];
+            buf.readBytes(bytes);
+            return new EncodedPacket(packet, version, bytes);
+        } finally {
+            buf.release();
+        }
+    }
+
+    public MinecraftPacket getPacket() {
+        return packet;
+    }
+
+    public ProtocolVersion getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the size of the encoded packet (id and body) in bytes, excluding the frame length and compression
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * Returns the message to write to the connection: the pre-encoded bytes if the connection is in the play state
+     * of the same version, the packet itself (to be encoded by the pipeline) otherwise.
+     */
+    public Object messageFor(MinecraftConnection connection) {
+        if (connection.getState() == StateRegistry.PLAY && connection.getProtocolVersion() == version) {
+            return Unpooled.wrappedBuffer(bytes);
+        }
+
+        return packet;
+    }
+
+}
@@ -0,0 +1,81 @@
+package de.timongcraft.veloboard.utils;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates keys that sort between two existing keys, so an element can be inserted into a key-ordered list
+ * without changing the keys of the other elements.
+ *
+ * <p>Keys only consist of digits and lowercase letters, so their natural order equals their case-insensitive order,
+ * and never end with {@code '0'}, so there always is a key between two keys.
+ */
+@ApiStatus.Internal
+public class FractionalKeys {
+
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    /**
+     * @param lower the key to sort after, or an empty string for the start
+     * @param upper the key to sort before, or {@code null} for the end
+     * @return a key greater than {@code lower} and less than {@code upper}
+     */
+    public static String between(String lower, @Nullable String upper) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; ; i++) {
+            int lowerDigit = i < lower.length() ? DIGITS.indexOf(lower.charAt(i)) : 0;
+            int upperDigit = upper != null && i < upper.length() ? DIGITS.indexOf(upper.charAt(i)) : BASE;
+
+            if (lowerDigit == upperDigit) {
+                key.append(DIGITS.charAt(lowerDigit));
+                continue;
+            }
+
+            int middle = (lowerDigit + upperDigit) / 2;
+            if (middle > lowerDigit) {
+                return key.append(DIGITS.charAt(middle)).toString();
+            }
+
+            // the digits are adjacent: keep the lower digit, everything after it is greater than the upper bound's rest
+            key.append(DIGITS.charAt(lowerDigit));
+            upper = null;
+        }
+    }
+
+    /**
+     * @return {@code count} ascending keys, spread evenly over the shortest possible key length
+     */
+    public static List<String> spread(int count) {
+        int length = 1;
+        long range = BASE;
+        while (range <= count) {
+            length++;
+            range *= BASE;
+        }
+
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long value = (i + 1) * range / (count + 1);
+
+            char[] digits = new char[length];
+            for (int position = length - 1; position >= 0; position--) {
+                digits[position] = DIGITS.charAt((int) (value % BASE));
+                value /= BASE;
+            }
+
+            int end = length;
+            while (end > 1 && digits[end - 1] == DIGITS.charAt(0)) {
+                end--;
+            }
+            keys.add(new String(digits, 0, end));
+        }
+        return keys;
+    }
+
+    private FractionalKeys() {}
+
+}
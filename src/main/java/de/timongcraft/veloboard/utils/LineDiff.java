@@ -0,0 +1,68 @@
+package de.timongcraft.veloboard.utils;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+@ApiStatus.Internal
+public class LineDiff {
+
+    /**
+     * Computes the longest common subsequence of the two lists.
+     *
+     * @return for each element of {@code oldList} the index of the matching element in {@code newList}, or -1 if it was removed or replaced.
+     * The matched indices are strictly increasing.
+     */
+    public static <T> int[] longestCommonSubsequence(List<T> oldList, List<T> newList, BiPredicate<T, T> equality) {
+        int[] matches = new int[oldList.size()];
+        Arrays.fill(matches, -1);
+
+        int prefix = 0;
+        while (prefix < oldList.size() && prefix < newList.size() && equality.test(oldList.get(prefix), newList.get(prefix))) {
+            matches[prefix] = prefix;
+            prefix++;
+        }
+
+        int oldEnd = oldList.size();
+        int newEnd = newList.size();
+        while (oldEnd > prefix && newEnd > prefix && equality.test(oldList.get(oldEnd - 1), newList.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+            matches[oldEnd] = newEnd;
+        }
+
+        int rows = oldEnd - prefix;
+        int columns = newEnd - prefix;
+        if (rows == 0 || columns == 0) return matches;
+
+        // lengths[i][j] = LCS length of oldList[prefix + i..oldEnd) and newList[prefix + j..newEnd)
+        int[][] lengths = new int[rows + 1][columns + 1];
+        for (int i = rows - 1; i >= 0; i--) {
+            for (int j = columns - 1; j >= 0; j--) {
+                lengths[i][j] = equality.test(oldList.get(prefix + i), newList.get(prefix + j)) ?
+                        lengths[i + 1][j + 1] + 1 :
+                        Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+            }
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < rows && j < columns) {
+            if (equality.test(oldList.get(prefix + i), newList.get(prefix + j))) {
+                matches[prefix + i] = prefix + j;
+                i++;
+                j++;
+            } else if (lengths[i + 1][j] >= lengths[i][j + 1]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return matches;
+    }
+
+    private LineDiff() {}
+
+}
@@ -2,7 +2,10 @@ package de.timongcraft.veloboard.utils;
 
 import org.jetbrains.annotations.ApiStatus;
 
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 @ApiStatus.Internal
@@ -21,6 +24,35 @@ public class ListUtils {
         list.add(element);
     }
 
+    /**
+     * Returns an unmodifiable view of the list that maps the elements on access, without copying the list.
+     */
+    public static <T, R> List<R> mappedView(List<T> list, Function<? super T, ? extends R> mapper) {
+        return new MappedList<>(list, mapper);
+    }
+
     private ListUtils() {}
 
+    private static class MappedList<T, R> extends AbstractList<R> implements RandomAccess {
+
+        private final List<T> list;
+        private final Function<? super T, ? extends R> mapper;
+
+        private MappedList(List<T> list, Function<? super T, ? extends R> mapper) {
+            this.list = list;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public R get(int index) {
+            return mapper.apply(list.get(index));
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+    }
+
 }
\ No newline at end of file
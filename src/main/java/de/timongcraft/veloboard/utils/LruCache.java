@@ -0,0 +1,125 @@
+package de.timongcraft.veloboard.utils;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, size-bounded cache evicting the least recently used entries.
+ *
+ * <p>The entries are split into segments by hash, so threads using different keys rarely contend on the same lock.
+ */
+@ApiStatus.Internal
+public class LruCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public LruCache(int maximumSize) {
+        segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(this);
+        }
+        setMaximumSize(maximumSize);
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            V value = segment.get(key);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+
+        synchronized (segment) {
+            V existing = segment.putIfAbsent(key, value);
+            return existing != null ? existing : value;
+        }
+    }
+
+    /**
+     * Sets the maximum amount of entries, evicting entries on the next insertion if the cache is larger.
+     */
+    public void setMaximumSize(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must be non-negative");
+        }
+
+        int segmentSize = (maximumSize + SEGMENTS - 1) / SEGMENTS;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.maximumSize = segmentSize;
+            }
+        }
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final LruCache<K, V> cache;
+        private int maximumSize;
+
+        private Segment(LruCache<K, V> cache) {
+            super(16, 0.75F, true);
+            this.cache = cache;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > maximumSize) {
+                cache.evictions.increment();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+package de.timongcraft.veloboard.utils;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * A thread-safe interner holding its values weakly: a value stays canonical for its key as long as anything else references it,
+ * and its entry is purged once it was garbage collected.
+ *
+ * <p>Keys may be cheaper than the values' own equality (like a fingerprint); the equivalence decides whether a value found
+ * for the key actually is interchangeable with the new one. If it isn't, the new value is returned without being interned.
+ */
+@ApiStatus.Internal
+public class WeakInterner<K, V> {
+
+    private final Map<K, ValueReference<K, V>> values = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+    private final BiPredicate<? super V, ? super V> equivalence;
+
+    public WeakInterner(BiPredicate<? super V, ? super V> equivalence) {
+        this.equivalence = equivalence;
+    }
+
+    /**
+     * @return the canonical value for the key, or the value if there is none (or it isn't equivalent)
+     */
+    public V intern(K key, V value) {
+        return intern(key, value, k -> value);
+    }
+
+    /**
+     * Like {@link #intern(Object, Object)}, but only creates the value if there is no canonical value for the key.
+     */
+    public V intern(K key, Function<? super K, ? extends V> loader) {
+        return intern(key, null, loader);
+    }
+
+    private V intern(K key, V value, Function<? super K, ? extends V> loader) {
+        purge();
+        while (true) {
+            ValueReference<K, V> reference = values.get(key);
+            V existing = reference != null ? reference.get() : null;
+            if (existing != null) {
+                if (value == null || equivalence.test(existing, value)) return existing;
+                return value;
+            }
+
+            V newValue = value != null ? value : loader.apply(key);
+            ValueReference<K, V> newReference = new ValueReference<>(key, newValue, queue);
+            boolean added = reference == null ?
+                    values.putIfAbsent(key, newReference) == null :
+                    values.replace(key, reference, newReference);
+            if (added) return newValue;
+            // raced with another thread, retry with its value
+            value = newValue;
+        }
+    }
+
+    /**
+     * @return the amount of interned values, including ones that were collected but not purged yet
+     */
+    public int size() {
+        purge();
+        return values.size();
+    }
+
+    private void purge() {
+        Object reference;
+        while ((reference = queue.poll()) != null) {
+            ValueReference<?, ?> valueReference = (ValueReference<?, ?>) reference;
+            values.remove(valueReference.key, valueReference);
+        }
+    }
+
+    private static final class ValueReference<K, V> extends WeakReference<V> {
+
+        private final K key;
+
+        private ValueReference(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+
+    }
+
+}
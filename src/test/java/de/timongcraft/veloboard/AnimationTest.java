@@ -0,0 +1,37 @@
+package de.timongcraft.veloboard;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AnimationTest {
+
+    @Test
+    void marqueeStepsByCodePoints() {
+        String text = "😀 Welcome 🎉";
+        Animation animation = Animation.marquee(text, 4, Duration.ofMillis(250), Style.empty());
+
+        // one frame per code point of the text and the spacing
+        assertEquals(text.codePointCount(0, text.length()) + 4, animation.getFrameCount());
+        for (Component frame : animation.getFrames()) {
+            String content = ((TextComponent) frame).content();
+            assertEquals(4, content.codePointCount(0, content.length()));
+            assertFalse(Character.isLowSurrogate(content.charAt(0)));
+            assertFalse(Character.isHighSurrogate(content.charAt(content.length() - 1)));
+        }
+    }
+
+    @Test
+    void marqueeFittingTextIsASingleFrame() {
+        Animation animation = Animation.marquee("😀😀", 2, Duration.ofMillis(250), Style.empty());
+
+        assertEquals(1, animation.getFrameCount());
+    }
+
+}
@@ -0,0 +1,116 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.event.EventHandler;
+import com.velocitypowered.api.event.EventManager;
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.player.ServerPostConnectEvent;
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import de.timongcraft.veloboard.testkit.PacketRecording;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.DisplayObjectivePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * After a server switch, the boards shown to the player are sent again in full, without the removals
+ * a client since 1.20.2 doesn't need as it forgot the boards.
+ */
+class BoardResyncTest {
+
+    private static EventHandler<ServerPostConnectEvent> serverPostConnect;
+
+    @BeforeAll
+    @SuppressWarnings("unchecked")
+    static void registerResync() {
+        EventManager eventManager = Mockito.mock(EventManager.class);
+        ProxyServer proxyServer = Mockito.mock(ProxyServer.class);
+        Mockito.when(proxyServer.getEventManager()).thenReturn(eventManager);
+        VeloBoardRegistry.registerResync(new Object(), proxyServer);
+
+        ArgumentCaptor<EventHandler<ServerPostConnectEvent>> handler = ArgumentCaptor.forClass(EventHandler.class);
+        Mockito.verify(eventManager).register(Mockito.any(), Mockito.eq(ServerPostConnectEvent.class), Mockito.eq(PostOrder.LAST), handler.capture());
+        serverPostConnect = handler.getValue();
+    }
+
+    @Test
+    void serverSwitchReplaysTheFullState() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        createBoard(player);
+
+        player.record(() -> switchServer(player))
+                .assertSequence(UpdateObjectivesPacket.class, DisplayObjectivePacket.class,
+                        UpdateScorePacket.class, UpdateScorePacket.class, UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void firstServerConnectSendsNothing() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        createBoard(player);
+
+        player.record(() -> serverPostConnect.execute(new ServerPostConnectEvent(player.getPlayer(), null)))
+                .assertNothingSent();
+    }
+
+    @Test
+    void clearedBoardsAreNotResynced() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        board.clear();
+
+        player.record(() -> switchServer(player))
+                .assertNothingSent();
+    }
+
+    @Test
+    void olderClientsAreSentARemovalFirst() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_18_2);
+        createBoard(player);
+
+        // older clients keep the board across server switches, so its teams are removed and created again
+        PacketRecording recording = player.record(() -> switchServer(player));
+        assertEquals(2 * 3, recording.getPacketCount(UpdateTeamsPacket.class));
+        assertEquals(2, recording.getPacketCount(UpdateObjectivesPacket.class));
+    }
+
+    @Test
+    void broadcastBoardsOnlyResyncTheSwitchingViewer() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        TestPlayer otherPlayer = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        BroadcastBoard board = new BroadcastBoard(Component.text("Title"));
+        board.updateLines(Component.text("a"), Component.text("b"), Component.text("c"));
+        board.addViewer(player.getPlayer());
+        board.addViewer(otherPlayer.getPlayer());
+        otherPlayer.clear();
+
+        // the objective, its display slot and a score and team per line
+        PacketRecording recording = player.record(() -> switchServer(player));
+        assertEquals(2 + 2 * 3, recording.getPacketCount());
+        assertEquals(1, recording.getPacketCount(UpdateObjectivesPacket.class));
+        otherPlayer.record(() -> {})
+                .assertNothingSent();
+    }
+
+    private static void switchServer(TestPlayer player) {
+        serverPostConnect.execute(new ServerPostConnectEvent(player.getPlayer(), Mockito.mock(RegisteredServer.class)));
+    }
+
+    private static VeloBoard createBoard(TestPlayer player) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.updateLines(Component.text("a"), Component.text("b"), Component.text("c"));
+        player.clear();
+        return board;
+    }
+
+}
@@ -0,0 +1,109 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Dirty boards are flushed once per frame in chunks of boards, and stopping the scheduler flushes the remaining boards
+ * on the calling thread.
+ */
+class BoardSchedulerTest {
+
+    @Test
+    void dirtyBoardsAreFlushedInChunks() {
+        List<Runnable> tasks = new ArrayList<>();
+        // never ticks by itself, the test ticks
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, tasks::add);
+        scheduler.start();
+        try {
+            List<TestPlayer> players = new ArrayList<>();
+            for (int i = 0; i < 130; i++) {
+                TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+                VeloBoard board = createBoard(player, scheduler);
+                board.updateLine(0, Component.text("x"));
+                board.updateLine(0, Component.text("y"));
+                players.add(player);
+            }
+            for (TestPlayer player : players) {
+                assertEquals(0, player.getPackets().size());
+            }
+
+            scheduler.tick();
+            // 64 + 64 + 2 boards
+            assertEquals(3, tasks.size());
+
+            tasks.forEach(Runnable::run);
+            for (TestPlayer player : players) {
+                player.record(() -> {})
+                        .assertSequence(UpdateScorePacket.class)
+                        .assertFlushBudget(1);
+            }
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void cleanBoardsAreNotSubmitted() {
+        List<Runnable> tasks = new ArrayList<>();
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, tasks::add);
+        scheduler.start();
+        try {
+            createBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), scheduler);
+
+            scheduler.tick();
+            assertEquals(0, tasks.size());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void stopFlushesThePendingBoardsOnTheCallingThread() {
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, task -> {
+            throw new AssertionError("No board may be flushed by the workers");
+        });
+        scheduler.start();
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player, scheduler);
+
+        player.record(() -> board.updateLine(0, Component.text("x")))
+                .assertNothingSent();
+        player.record(scheduler::stop)
+                .assertSequence(UpdateScorePacket.class)
+                .assertFlushBudget(1);
+        assertFalse(scheduler.isRunning());
+    }
+
+    @Test
+    void boardsSendDirectlyOnceStopped() {
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, Runnable::run);
+        scheduler.start();
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player, scheduler);
+        scheduler.stop();
+
+        player.record(() -> board.updateLine(0, Component.text("x")))
+                .assertSequence(UpdateScorePacket.class);
+    }
+
+    private static VeloBoard createBoard(TestPlayer player, BoardScheduler scheduler) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.updateLines(Component.text("a"), Component.text("b"));
+        board.setScheduler(scheduler);
+        player.clear();
+        return board;
+    }
+
+}
@@ -0,0 +1,152 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Updates that don't change what the client shows must not send anything, and single line changes only their line, on every kind of board.
+ */
+class BoardUpdatesTest {
+
+    @ParameterizedTest
+    @EnumSource(BoardType.class)
+    void unchangedLinesSendNothing(BoardType type) {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AbstractBoard board = type.create(player);
+
+        player.record(() -> type.setLines(board, List.of(Component.text("a"), Component.text("b"), Component.text("c"))))
+                .assertNothingSent();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardType.class)
+    void unchangedLineSendsNothing(BoardType type) {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AbstractBoard board = type.create(player);
+
+        player.record(() -> type.setLine(board, 1, Component.text("b")))
+                .assertNothingSent();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardType.class)
+    void unchangedTitleSendsNothing(BoardType type) {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AbstractBoard board = type.create(player);
+
+        player.record(() -> type.setTitle(board, Component.text("Title")))
+                .assertNothingSent();
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardType.class)
+    void unchangedTitleKeepsTheSnapshot(BoardType type) {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AbstractBoard board = type.create(player);
+        long version = type.snapshotVersion(board);
+
+        type.setTitle(board, Component.text("Title"));
+
+        assertEquals(version, type.snapshotVersion(board));
+    }
+
+    @ParameterizedTest
+    @EnumSource(BoardType.class)
+    void singleLineChangeUpdatesOnlyItsScore(BoardType type) {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AbstractBoard board = type.create(player);
+
+        player.record(() -> type.setLines(board, List.of(Component.text("a"), Component.text("x"), Component.text("c"))))
+                .assertSequence(UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    enum BoardType {
+
+        VELO_BOARD {
+            @Override
+            AbstractBoard createInitialized(TestPlayer player) {
+                VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+                board.initialize();
+                return board;
+            }
+
+            @Override
+            void setLines(AbstractBoard board, List<Component> lines) {
+                ((VeloBoard) board).updateLines(lines);
+            }
+
+            @Override
+            void setLine(AbstractBoard board, int lineIndex, Component line) {
+                ((VeloBoard) board).updateLine(lineIndex, line);
+            }
+
+            @Override
+            void setTitle(AbstractBoard board, Component title) {
+                ((VeloBoard) board).updateTitle(title);
+            }
+
+            @Override
+            long snapshotVersion(AbstractBoard board) {
+                return ((VeloBoard) board).getSnapshot().version();
+            }
+        },
+        SIMPLE_BOARD {
+            @Override
+            AbstractBoard createInitialized(TestPlayer player) {
+                SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+                board.initialize();
+                return board;
+            }
+
+            @Override
+            void setLines(AbstractBoard board, List<Component> lines) {
+                ((SimpleBoard) board).setLineComponents(lines);
+            }
+
+            @Override
+            void setLine(AbstractBoard board, int lineIndex, Component line) {
+                ((SimpleBoard) board).setLineComponent(lineIndex, line);
+            }
+
+            @Override
+            void setTitle(AbstractBoard board, Component title) {
+                ((SimpleBoard) board).setTitle(title);
+            }
+
+            @Override
+            long snapshotVersion(AbstractBoard board) {
+                return ((SimpleBoard) board).getSnapshot().version();
+            }
+        };
+
+        /**
+         * @return an initialized board showing the lines a, b and c
+         */
+        AbstractBoard create(TestPlayer player) {
+            AbstractBoard board = createInitialized(player);
+            setLines(board, List.of(Component.text("a"), Component.text("b"), Component.text("c")));
+            return board;
+        }
+
+        abstract AbstractBoard createInitialized(TestPlayer player);
+
+        abstract void setLines(AbstractBoard board, List<Component> lines);
+
+        abstract void setLine(AbstractBoard board, int lineIndex, Component line);
+
+        abstract void setTitle(AbstractBoard board, Component title);
+
+        abstract long snapshotVersion(AbstractBoard board);
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.proxy.Player;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only confined boards are updated on their event loops, all other boards on the calling thread.
+ */
+class BoardsTest {
+
+    private DefaultEventLoopGroup group;
+
+    @BeforeEach
+    void startEventLoops() {
+        group = new DefaultEventLoopGroup(1);
+    }
+
+    @AfterEach
+    void stopEventLoops() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    void boardsAreUpdatedOnTheirThreads() throws Exception {
+        EventLoop eventLoop = group.next();
+        VeloBoard board = createBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4, eventLoop).getPlayer());
+        VeloBoard confinedBoard = createBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4, eventLoop).getPlayer());
+        confinedBoard.setEventLoopConfined(true);
+
+        Map<VeloBoard, Thread> threads = new ConcurrentHashMap<>();
+        CompletableFuture<Void> future = Boards.updateAll(List.of(board, confinedBoard), updated -> {
+            threads.put(updated, Thread.currentThread());
+            updated.updateLine(0, Component.text("x"));
+        });
+
+        // the board that isn't confined was updated before returning
+        assertSame(Thread.currentThread(), threads.get(board));
+        assertEquals(Component.text("x"), board.getLine(0));
+
+        future.get(5, TimeUnit.SECONDS);
+        assertTrue(eventLoop.submit(() -> threads.get(confinedBoard) == Thread.currentThread()).get(5, TimeUnit.SECONDS));
+        assertEquals(Component.text("x"), confinedBoard.getLine(0));
+    }
+
+    @Test
+    void failuresOnTheCallingThreadCompleteTheFutureExceptionally() {
+        VeloBoard board = createBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer());
+
+        CompletableFuture<Void> future = Boards.updateAll(List.of(board), updated -> {
+            throw new IllegalStateException("failed");
+        });
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static VeloBoard createBoard(Player player) {
+        VeloBoard board = new VeloBoard(player, Component.text("Title"));
+        board.initialize();
+        board.updateLines(Component.text("a"));
+        return board;
+    }
+
+}
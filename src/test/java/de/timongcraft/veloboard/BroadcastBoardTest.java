@@ -0,0 +1,106 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Viewers are grouped by protocol version and locale, and every update is encoded once per group
+ * no matter how many viewers the group has.
+ */
+class BroadcastBoardTest {
+
+    @Test
+    void viewersAreGroupedByVersionAndLocale() {
+        BroadcastBoard board = createBoard();
+        board.addViewer(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer());
+        board.addViewer(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer());
+        board.addViewer(TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2).getPlayer());
+        board.addViewer(createPlayer(ProtocolVersion.MINECRAFT_1_21_4, Locale.GERMAN).getPlayer());
+
+        assertEquals(3, board.groups.size());
+        assertEquals(2, board.groups.get(new BroadcastBoard.GroupKey(ProtocolVersion.MINECRAFT_1_21_4, null)).members.size());
+    }
+
+    @Test
+    void resendRegroupsTheViewerByTheirNewLocale() {
+        BroadcastBoard board = createBoard();
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        board.addViewer(player.getPlayer());
+        board.addViewer(createPlayer(ProtocolVersion.MINECRAFT_1_21_4, Locale.GERMAN).getPlayer());
+
+        player.getPlayer().setEffectiveLocale(Locale.GERMAN);
+        board.resend(player.getPlayer());
+
+        assertEquals(1, board.groups.size());
+        assertEquals(2, board.groups.get(new BroadcastBoard.GroupKey(ProtocolVersion.MINECRAFT_1_21_4, Locale.GERMAN)).members.size());
+    }
+
+    @Test
+    void updatesAreEncodedOncePerGroup() {
+        BroadcastBoard board = createBoard();
+        List<TestPlayer> players = List.of(
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2)
+        );
+        for (TestPlayer player : players) {
+            board.addViewer(player.getPlayer());
+            player.clear();
+        }
+
+        try (MockedStatic<EncodedPacket> encodedPacket = Mockito.mockStatic(EncodedPacket.class, Mockito.CALLS_REAL_METHODS)) {
+            board.updateLine(1, Component.text("x"));
+
+            // a single team update, encoded for each of the two groups
+            encodedPacket.verify(() -> EncodedPacket.encode(any(), any()), Mockito.times(2));
+        }
+
+        for (TestPlayer player : players) {
+            player.record(() -> {})
+                    .assertSequence(UpdateTeamsPacket.class);
+        }
+    }
+
+    @Test
+    void joiningViewersGetTheCachedFullStateOfTheirGroup() {
+        BroadcastBoard board = createBoard();
+        board.addViewer(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer());
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+
+        try (MockedStatic<EncodedPacket> encodedPacket = Mockito.mockStatic(EncodedPacket.class, Mockito.CALLS_REAL_METHODS)) {
+            board.addViewer(player.getPlayer());
+
+            encodedPacket.verify(() -> EncodedPacket.encode(any(), any()), Mockito.times(0));
+        }
+
+        // the objective, its display slot and a score and team per line
+        assertEquals(2 + 2 * 3, player.getPackets().size());
+    }
+
+    private static BroadcastBoard createBoard() {
+        BroadcastBoard board = new BroadcastBoard(Component.text("Title"));
+        board.updateLines(Component.text("a"), Component.text("b"), Component.text("c"));
+        return board;
+    }
+
+    private static TestPlayer createPlayer(ProtocolVersion version, Locale locale) {
+        TestPlayer player = TestPlayers.create(version);
+        player.getPlayer().setEffectiveLocale(locale);
+        return player;
+    }
+
+}
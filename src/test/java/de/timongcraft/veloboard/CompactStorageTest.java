@@ -0,0 +1,103 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.CapturedPacket;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compact boards share one flyweight per distinct line, and compacting changes neither the state nor what is sent.
+ */
+class CompactStorageTest {
+
+    @Test
+    void compactVeloBoardsShareTheirLines() {
+        VeloBoard board = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+        VeloBoard otherBoard = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+
+        for (int i = 0; i < board.getLinesCopy().size(); i++) {
+            assertSame(board.getLine(i), otherBoard.getLine(i));
+        }
+    }
+
+    @Test
+    void veloBoardsKeepTheirOwnLinesByDefault() {
+        VeloBoard board = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), false);
+        VeloBoard otherBoard = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), false);
+
+        assertNotSame(board.getLine(0), otherBoard.getLine(0));
+    }
+
+    @Test
+    void compactSimpleBoardsShareTheirLines() {
+        SimpleBoard board = createSimpleBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+        SimpleBoard otherBoard = createSimpleBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+
+        List<LinesEntry> lines = board.getSnapshot().lines();
+        List<LinesEntry> otherLines = otherBoard.getSnapshot().lines();
+        for (int i = 0; i < lines.size(); i++) {
+            assertSame(lines.get(i), otherLines.get(i));
+        }
+    }
+
+    @Test
+    void compactingSendsNothingAndKeepsTheSnapshot() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createVeloBoard(player, false);
+        VeloBoard compactBoard = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+        long version = board.getSnapshot().version();
+
+        player.record(() -> board.setCompactStorage(true))
+                .assertNothingSent();
+        assertEquals(version, board.getSnapshot().version());
+        // the lines already set were replaced by their flyweights
+        assertSame(compactBoard.getLine(0), board.getLine(0));
+    }
+
+    @Test
+    void compactBoardsSendTheSamePackets() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2);
+        TestPlayer compactPlayer = TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2);
+        VeloBoard board = createVeloBoard(player, false);
+        VeloBoard compactBoard = createVeloBoard(compactPlayer, true);
+
+        List<CapturedPacket> packets = player.record(() -> board.updateLines(Component.text("x"), Component.text("b"))).getPackets();
+        List<CapturedPacket> compactPackets = compactPlayer.record(() -> compactBoard.updateLines(Component.text("x"), Component.text("b"))).getPackets();
+        assertEquals(packets.stream().map(CapturedPacket::toString).toList(), compactPackets.stream().map(CapturedPacket::toString).toList());
+    }
+
+    @Test
+    void compactBoardsRetainLess() {
+        VeloBoard board = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), false);
+        VeloBoard compactBoard = createVeloBoard(TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4), true);
+
+        assertTrue(compactBoard.estimateRetainedSize() < board.estimateRetainedSize());
+    }
+
+    private static VeloBoard createVeloBoard(TestPlayer player, boolean compactStorage) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.setCompactStorage(compactStorage);
+        board.initialize();
+        board.updateLines(Component.text("Coins: 5"), Component.text("Kills: 2"), Component.text("example.com"));
+        player.clear();
+        return board;
+    }
+
+    private static SimpleBoard createSimpleBoard(TestPlayer player, boolean compactStorage) {
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.setCompactStorage(compactStorage);
+        board.initialize();
+        board.setLineComponents(Component.text("Coins: 5"), Component.text("Kills: 2"), Component.text("example.com"));
+        player.clear();
+        return board;
+    }
+
+}
@@ -0,0 +1,40 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Holders are shared by content and protocol version, not by component instance.
+ */
+class ComponentCacheTest {
+
+    @Test
+    void equalComponentsShareTheirHolder() {
+        assertSame(
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text("Online: ").append(Component.text("12", NamedTextColor.GOLD))),
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text("Online: ").append(Component.text("12", NamedTextColor.GOLD)))
+        );
+    }
+
+    @Test
+    void differentComponentsDontShareTheirHolder() {
+        assertNotSame(
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text("12", NamedTextColor.GOLD)),
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text("12", NamedTextColor.WHITE))
+        );
+    }
+
+    @Test
+    void versionsDontShareTheirHolder() {
+        assertNotSame(
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_20_2, Component.text("a")),
+                ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text("a"))
+        );
+    }
+
+}
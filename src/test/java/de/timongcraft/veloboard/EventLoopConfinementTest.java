@@ -0,0 +1,109 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoop;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Changes to a confined board made from other threads are handed over to its event loop and run there in order,
+ * while waiting for it from another event loop is rejected.
+ */
+class EventLoopConfinementTest {
+
+    private DefaultEventLoopGroup group;
+    private EventLoop eventLoop;
+
+    @BeforeEach
+    void startEventLoops() {
+        group = new DefaultEventLoopGroup(2);
+        eventLoop = group.next();
+    }
+
+    @AfterEach
+    void stopEventLoops() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    void foreignChangesAreHandedOverInOrder() throws Exception {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4, eventLoop);
+        SimpleBoard board = createBoard(player);
+
+        CountDownLatch release = new CountDownLatch(1);
+        eventLoop.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        board.setLineComponent(1, Component.text("x"));
+        board.setLineComponent(1, Component.text("y"));
+        board.setLineComponent(1, Component.text("z"));
+        // the event loop is busy, so none of the changes ran yet
+        assertEquals(Component.text("b"), board.getLineComponent(1));
+
+        release.countDown();
+        awaitEventLoop();
+
+        assertEquals(List.of(Component.text("a"), Component.text("z"), Component.text("c")), board.getLineComponents());
+        player.record(() -> {})
+                .assertSequence(UpdateScorePacket.class, UpdateScorePacket.class, UpdateScorePacket.class);
+    }
+
+    @Test
+    void waitingFromAnotherEventLoopIsRejected() throws Exception {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4, eventLoop);
+        SimpleBoard board = createBoard(player);
+
+        EventLoop otherEventLoop = group.next();
+        assertTrue(otherEventLoop != eventLoop);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> otherEventLoop.submit(board::isKeyedLines).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void waitingFromAnotherThreadRunsOnTheEventLoop() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4, eventLoop);
+        SimpleBoard board = createBoard(player);
+
+        board.setKeyedLines(true);
+        assertTrue(board.isKeyedLines());
+    }
+
+    private SimpleBoard createBoard(TestPlayer player) {
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.setEventLoopConfined(true);
+        board.initialize();
+        board.setLineComponents(Component.text("a"), Component.text("b"), Component.text("c"));
+        awaitEventLoop();
+        player.clear();
+        return board;
+    }
+
+    private void awaitEventLoop() {
+        try {
+            eventLoop.submit(() -> {}).get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.protocol.packet.chat.ComponentHolder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Filled templates must serialize exactly like the filled component would, whether the values are spliced or not.
+ */
+class LineTemplateTest {
+
+    private static final LineTemplate COINS = LineTemplate.compile(Component.text("Coins: ", NamedTextColor.GOLD)
+            .append(LineTemplate.slot("coins").color(NamedTextColor.WHITE)));
+    private static final LineTemplate NESTED = LineTemplate.compile(Component.text("[")
+            .append(Component.text("K/D ", NamedTextColor.GRAY)
+                    .append(LineTemplate.slot("kills").decorate(TextDecoration.BOLD))
+                    .append(Component.text("/"))
+                    .append(Component.text("", NamedTextColor.RED).append(LineTemplate.slot("deaths"))))
+            .append(Component.text("]")));
+
+    @Test
+    void splicedSlotMatchesTheFilledComponent() {
+        ConnectedPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer();
+        Map<String, ?> values = Map.of("coins", 1234);
+
+        assertEquals(
+                new ComponentHolder(player.getProtocolVersion(), COINS.fill(values)).getBinaryTag(),
+                COINS.holder(player, COINS.values(values)).getBinaryTag()
+        );
+    }
+
+    @Test
+    void splicedNestedSlotsMatchTheFilledComponent() {
+        ConnectedPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer();
+        Map<String, ?> values = Map.of("kills", "\"12\"", "deaths", "\\3\n");
+
+        assertEquals(
+                new ComponentHolder(player.getProtocolVersion(), NESTED.fill(values)).getBinaryTag(),
+                NESTED.holder(player, NESTED.values(values)).getBinaryTag()
+        );
+    }
+
+    @Test
+    void nestedSlotsMatchTheFilledComponentBefore1_20_3() {
+        ConnectedPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2).getPlayer();
+        Map<String, ?> values = Map.of("kills", 12, "deaths", 3);
+
+        assertEquals(
+                new ComponentHolder(player.getProtocolVersion(), NESTED.fill(values)).getJson(),
+                NESTED.holder(player, NESTED.values(values)).getJson()
+        );
+    }
+
+    @Test
+    void equallyFilledTemplatesShareTheirHolder() {
+        ConnectedPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer();
+        ConnectedPlayer otherPlayer = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4).getPlayer();
+
+        assertSame(
+                COINS.holder(player, COINS.values(Map.of("coins", 5))),
+                COINS.holder(otherPlayer, COINS.values(Map.of("coins", 5)))
+        );
+    }
+
+}
@@ -0,0 +1,169 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The packets sent for each transition by the boards using a team per line, on a client before 1.20.3:
+ * a removed line costs its team and score, a created line its score and team, a changed line only its team,
+ * and a title or number format change one objective update. Nothing is sent for changes the client already shows.
+ */
+class PacketBudgetTest {
+
+    private static final ProtocolVersion VERSION = ProtocolVersion.MINECRAFT_1_20_2;
+
+    @Test
+    void veloBoardGrowCreatesScoreAndTeamPerNewLine() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "a");
+
+        player.record(() -> board.updateLines(lines("c", "b", "a")))
+                .assertSequence(UpdateScorePacket.class, UpdateTeamsPacket.class, UpdateScorePacket.class, UpdateTeamsPacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void veloBoardShrinkRemovesTeamAndScorePerDroppedLine() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "c", "b", "a");
+
+        player.record(() -> board.updateLines(lines("a")))
+                .assertSequence(UpdateTeamsPacket.class, UpdateScorePacket.class, UpdateTeamsPacket.class, UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void veloBoardSingleLineChangeUpdatesItsTeam() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "a", "b", "c");
+
+        player.record(() -> board.updateLines(lines("a", "x", "c")))
+                .assertSequence(UpdateTeamsPacket.class);
+    }
+
+    @Test
+    void veloBoardTitleChangeUpdatesTheObjective() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "a", "b");
+
+        player.record(() -> board.updateTitle(Component.text("Other")))
+                .assertSequence(UpdateObjectivesPacket.class);
+    }
+
+    @Test
+    void veloBoardNumberFormatChangeUpdatesTheObjective() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "a", "b");
+        ComponentUtils.NumberFormat format = numberFormat();
+
+        player.record(() -> board.setNumberFormat(format))
+                .assertSequence(UpdateObjectivesPacket.class);
+    }
+
+    @Test
+    void veloBoardNoOpSendsNothing() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        VeloBoard board = createVeloBoard(player, "a", "b");
+
+        player.record(() -> {
+            board.updateLines(lines("a", "b"));
+            board.updateTitle(Component.text("Title"));
+            board.setNumberFormat(null);
+        }).assertNothingSent();
+    }
+
+    @Test
+    void broadcastBoardGrowCreatesScoreAndTeamPerNewLine() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "a");
+
+        player.record(() -> board.updateLines(lines("c", "b", "a")))
+                .assertSequence(UpdateScorePacket.class, UpdateTeamsPacket.class, UpdateScorePacket.class, UpdateTeamsPacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void broadcastBoardShrinkRemovesTeamAndScorePerDroppedLine() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "c", "b", "a");
+
+        player.record(() -> board.updateLines(lines("a")))
+                .assertSequence(UpdateTeamsPacket.class, UpdateScorePacket.class, UpdateTeamsPacket.class, UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void broadcastBoardSingleLineChangeUpdatesItsTeam() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "a", "b", "c");
+
+        player.record(() -> board.updateLine(1, Component.text("x")))
+                .assertSequence(UpdateTeamsPacket.class);
+    }
+
+    @Test
+    void broadcastBoardTitleChangeUpdatesTheObjective() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "a", "b");
+
+        player.record(() -> board.updateTitle(Component.text("Other")))
+                .assertSequence(UpdateObjectivesPacket.class);
+    }
+
+    @Test
+    void broadcastBoardNumberFormatChangeUpdatesTheObjective() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "a", "b");
+        ComponentUtils.NumberFormat format = numberFormat();
+
+        player.record(() -> board.setNumberFormat(format))
+                .assertSequence(UpdateObjectivesPacket.class);
+    }
+
+    @Test
+    void broadcastBoardNoOpSendsNothing() {
+        TestPlayer player = TestPlayers.create(VERSION);
+        BroadcastBoard board = createBroadcastBoard(player, "a", "b");
+
+        player.record(() -> {
+            board.updateLines(lines("a", "b"));
+            board.updateTitle(Component.text("Title"));
+            board.setNumberFormat(null);
+        }).assertNothingSent();
+    }
+
+    private static VeloBoard createVeloBoard(TestPlayer player, String... lines) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.updateLines(lines(lines));
+        return board;
+    }
+
+    private static BroadcastBoard createBroadcastBoard(TestPlayer player, String... lines) {
+        BroadcastBoard board = new BroadcastBoard(Component.text("Title"));
+        board.updateLines(lines(lines));
+        board.addViewer(player.getPlayer());
+        return board;
+    }
+
+    private static ComponentUtils.NumberFormat numberFormat() {
+        ComponentUtils.NumberFormat format = Mockito.mock(ComponentUtils.NumberFormat.class);
+        Mockito.when(format.compiled(Mockito.any())).thenReturn(format);
+        return format;
+    }
+
+    private static List<Component> lines(String... lines) {
+        return Arrays.stream(lines).<Component>map(Component::text).toList();
+    }
+
+}
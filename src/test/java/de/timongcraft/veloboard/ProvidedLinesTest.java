@@ -0,0 +1,82 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Providers only update the lines whose value changed, and are evaluated without holding the board's lock.
+ */
+class ProvidedLinesTest {
+
+    @Test
+    void equalValuesAreNotChanges() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        ProvidedLines providedLines = new ProvidedLines(List.of(
+                LineProvider.of(() -> Component.text("Online: ").append(Component.text("12")), Duration.ZERO)
+        ));
+
+        providedLines.evaluateAll(player.getPlayer(), 0);
+        assertEquals(List.of(), providedLines.refreshDue(player.getPlayer(), 1));
+    }
+
+    @Test
+    void changedValuesAreChanges() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        AtomicInteger online = new AtomicInteger(12);
+        ProvidedLines providedLines = new ProvidedLines(List.of(
+                LineProvider.constant(Component.text("Online")),
+                LineProvider.of(() -> Component.text(String.valueOf(online.get())), Duration.ZERO)
+        ));
+
+        providedLines.evaluateAll(player.getPlayer(), 0);
+        online.set(13);
+        assertEquals(List.of(new ProvidedLines.ChangedLine(1, Component.text("13"))), providedLines.refreshDue(player.getPlayer(), 1));
+    }
+
+    @Test
+    void providersAreEvaluatedWithoutTheLock() throws Exception {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+
+        AtomicBoolean blocking = new AtomicBoolean(false);
+        CountDownLatch evaluating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        board.setLineProviders(List.of(LineProvider.of(() -> {
+            if (blocking.get()) {
+                evaluating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Component.text("a");
+        }, Duration.ZERO)));
+
+        blocking.set(true);
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(board::refreshLines);
+        try {
+            assertTrue(evaluating.await(5, TimeUnit.SECONDS));
+            // waits for the lock, which the blocked provider must not hold
+            CompletableFuture.runAsync(() -> board.updateTitle(Component.text("Other"))).get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+        refresh.get(5, TimeUnit.SECONDS);
+    }
+
+}
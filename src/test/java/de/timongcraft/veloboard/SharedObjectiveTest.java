@@ -0,0 +1,128 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Changes to the score table made in a batch are conflated to the last change of each holder, encoded once
+ * per protocol version and flushed once per viewer.
+ */
+class SharedObjectiveTest {
+
+    @Test
+    void scoreChangesOfAHolderAreConflated() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SharedObjective objective = createObjective(player);
+
+        player.record(() -> objective.batch(o -> {
+                    o.setScore("Alice", 1);
+                    o.setScore("Alice", 2);
+                    o.setScore("Alice", 3);
+                }))
+                .assertSequence(UpdateScorePacket.class)
+                .assertFlushBudget(1);
+        assertEquals(3, (int) objective.getScore("Alice"));
+    }
+
+    @Test
+    void removalReplacesThePendingChange() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SharedObjective objective = createObjective(player);
+
+        player.record(() -> objective.batch(o -> {
+                    o.setScore("Alice", 5);
+                    o.removeScore("Alice");
+                }))
+                .assertSequence(ResetScorePacket.class);
+    }
+
+    @Test
+    void objectiveChangesAreConflated() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SharedObjective objective = createObjective(player);
+
+        player.record(() -> objective.batch(o -> {
+                    o.updateTitle(Component.text("Kills"));
+                    o.setScore("Alice", 1);
+                    o.updateTitle(Component.text("Deaths"));
+                    o.setScores(Map.of("Alice", 2, "Bob", 1));
+                }))
+                .assertSequence(UpdateObjectivesPacket.class, UpdateScorePacket.class, UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void unchangedScoresSendNothing() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SharedObjective objective = createObjective(player);
+        objective.setScore("Alice", 1);
+
+        player.record(() -> objective.setScore("Alice", 1))
+                .assertNothingSent();
+    }
+
+    @Test
+    void scoreChangesAreEncodedOncePerVersion() {
+        List<TestPlayer> players = List.of(
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4),
+                TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2)
+        );
+        SharedObjective objective = createObjective(players.get(0));
+        for (TestPlayer player : players) {
+            objective.addViewer(player.getPlayer());
+            player.clear();
+        }
+
+        try (MockedStatic<EncodedPacket> encodedPacket = Mockito.mockStatic(EncodedPacket.class, Mockito.CALLS_REAL_METHODS)) {
+            objective.setScore("Alice", 1);
+
+            encodedPacket.verify(() -> EncodedPacket.encode(any(), any()), Mockito.times(2));
+        }
+
+        for (TestPlayer player : players) {
+            player.record(() -> {})
+                    .assertSequence(UpdateScorePacket.class);
+        }
+    }
+
+    @Test
+    void joiningViewersGetTheEncodedTable() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SharedObjective objective = createObjective(player);
+        objective.setScores(Map.of("Alice", 1, "Bob", 2, "Carol", 3));
+        TestPlayer joiningPlayer = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+
+        try (MockedStatic<EncodedPacket> encodedPacket = Mockito.mockStatic(EncodedPacket.class, Mockito.CALLS_REAL_METHODS)) {
+            objective.addViewer(joiningPlayer.getPlayer());
+
+            // only the objective and its display slot, the scores are already encoded for the version
+            encodedPacket.verify(() -> EncodedPacket.encode(any(), any()), Mockito.times(2));
+        }
+
+        assertEquals(2 + 3, joiningPlayer.getPackets().size());
+    }
+
+    private static SharedObjective createObjective(TestPlayer player) {
+        SharedObjective objective = new SharedObjective(SharedObjective.DisplaySlot.LIST, Component.text("Title"));
+        objective.addViewer(player.getPlayer());
+        player.clear();
+        return objective;
+    }
+
+}
@@ -0,0 +1,146 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.PacketRecording;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.veloboard.utils.FractionalKeys;
+import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keyed lines only send the lines that were added, removed or changed, with keys planned before sending,
+ * and changing the keying is deferred like any other update.
+ */
+class SimpleBoardTest {
+
+    @Test
+    void keyedInsertSendsOnlyTheNewLine() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createKeyedBoard(player);
+
+        player.record(() -> board.setLineComponents(Component.text("a"), Component.text("x"), Component.text("b"), Component.text("c")))
+                .assertSequence(UpdateScorePacket.class);
+    }
+
+    @Test
+    void keyedRemovalResetsOnlyTheRemovedLine() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createKeyedBoard(player);
+
+        player.record(() -> board.setLineComponents(Component.text("a"), Component.text("c")))
+                .assertSequence(ResetScorePacket.class);
+    }
+
+    @Test
+    void keyedMoveResendsOnlyTheMovedLine() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createKeyedBoard(player);
+
+        player.record(() -> board.setLineComponents(Component.text("b"), Component.text("c"), Component.text("a")))
+                .assertSequence(ResetScorePacket.class, UpdateScorePacket.class);
+    }
+
+    @Test
+    void plannedKeysKeepTheCommonLinesAndSortInBetween() {
+        List<String> oldKeys = FractionalKeys.spread(3);
+        List<String> newKeys = SimpleBoard.planLineKeys(oldKeys, entries("a", "b", "c"), entries("a", "x", "y", "c", "z"));
+
+        assertEquals(5, newKeys.size());
+        assertEquals(oldKeys.get(0), newKeys.get(0));
+        // the replaced line b keeps its key
+        assertEquals(oldKeys.get(1), newKeys.get(1));
+        assertEquals(oldKeys.get(2), newKeys.get(3));
+        for (int i = 1; i < newKeys.size(); i++) {
+            assertTrue(newKeys.get(i - 1).compareTo(newKeys.get(i)) < 0, newKeys.toString());
+        }
+    }
+
+    @Test
+    void keysTooLongAreSpreadBeforeSending() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.setKeyedLines(true);
+        board.setLineComponents(Component.text("top"), Component.text("0"), Component.text("bottom"));
+
+        // inserting right below the top line again and again makes the new keys longer every few inserts
+        int rekeys = 0;
+        for (int i = 1; i <= 200; i++) {
+            Component inserted = Component.text(String.valueOf(i));
+            Component previous = Component.text(String.valueOf(i - 1));
+            PacketRecording insert = player.record(() -> board.setLineComponents(Component.text("top"), inserted, previous, Component.text("bottom")))
+                    .assertPacketBudget(UpdateScorePacket.class, 4);
+            if (insert.getPacketCount() > 1) rekeys++;
+
+            board.setLineComponents(Component.text("top"), inserted, Component.text("bottom"));
+        }
+        assertTrue(rekeys > 0);
+    }
+
+    @Test
+    void keyingChangeIsDeferredToTheScheduler() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, Runnable::run);
+        scheduler.start();
+        try {
+            board.setScheduler(scheduler);
+
+            player.record(() -> board.setKeyedLines(true))
+                    .assertNothingSent();
+            player.record(scheduler::flushAll)
+                    .assertPacketBudget(ResetScorePacket.class, 3)
+                    .assertPacketBudget(UpdateScorePacket.class, 3)
+                    .assertFlushBudget(1);
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void revertedKeyingChangeSendsNothing() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+        BoardScheduler scheduler = new BoardScheduler(Duration.ofHours(1), 1, Runnable::run);
+        scheduler.start();
+        try {
+            board.setScheduler(scheduler);
+            board.setKeyedLines(true);
+            board.setKeyedLines(false);
+
+            player.record(scheduler::flushAll)
+                    .assertNothingSent();
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    private static SimpleBoard createKeyedBoard(TestPlayer player) {
+        SimpleBoard board = createBoard(player);
+        board.setKeyedLines(true);
+        return board;
+    }
+
+    private static List<LinesEntry> entries(String... lines) {
+        return Arrays.stream(lines)
+                .map(line -> new LinesEntry(ComponentCache.holder(ProtocolVersion.MINECRAFT_1_21_4, Component.text(line)), null))
+                .toList();
+    }
+
+    private static SimpleBoard createBoard(TestPlayer player) {
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.setLineComponents(Component.text("a"), Component.text("b"), Component.text("c"));
+        return board;
+    }
+
+}
@@ -0,0 +1,120 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.PacketRecording;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A virtualized board only sends the lines of its window, and scrolling only the lines that entered or left it.
+ */
+class SimpleBoardWindowTest {
+
+    private static final int LINES = 20;
+    private static final int WINDOW_SIZE = 5;
+
+    @Test
+    void onlyTheWindowIsSent() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.setKeyedLines(true);
+        board.setWindowSize(WINDOW_SIZE);
+
+        PacketRecording recording = player.record(() -> board.setLineComponents(lines()));
+        assertEquals(WINDOW_SIZE, recording.getPacketCount());
+        assertEquals(WINDOW_SIZE, recording.getPacketCount(UpdateScorePacket.class));
+    }
+
+    @Test
+    void changesOutsideTheWindowSendNothing() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+
+        player.record(() -> board.setLineComponent(10, Component.text("x")))
+                .assertNothingSent();
+    }
+
+    @Test
+    void scrollToSendsOnlyTheLinesEnteringAndLeaving() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+
+        player.record(() -> board.scrollTo(2))
+                .assertSequence(ResetScorePacket.class, ResetScorePacket.class, UpdateScorePacket.class, UpdateScorePacket.class)
+                .assertFlushBudget(1);
+        assertEquals(2, board.getWindowOffset());
+    }
+
+    @Test
+    void scrollToIsKeptWithinTheLines() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+
+        board.scrollTo(100);
+        assertEquals(LINES - WINDOW_SIZE, board.getWindowOffset());
+        board.scrollTo(-1);
+        assertEquals(0, board.getWindowOffset());
+    }
+
+    @Test
+    void nextPageUpdatesTheWholeWindowInPlace() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+
+        // no line stays, so the score holders of the old page are reused instead of being reset
+        PacketRecording recording = player.record(board::nextPage)
+                .assertFlushBudget(1);
+        assertEquals(WINDOW_SIZE, recording.getPacketCount());
+        assertEquals(WINDOW_SIZE, recording.getPacketCount(UpdateScorePacket.class));
+        assertEquals(WINDOW_SIZE, board.getWindowOffset());
+    }
+
+    @Test
+    void previousPageUpdatesTheWholeWindowInPlace() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+        board.scrollTo(WINDOW_SIZE + 2);
+
+        PacketRecording recording = player.record(board::previousPage);
+        assertEquals(WINDOW_SIZE, recording.getPacketCount());
+        assertEquals(WINDOW_SIZE, recording.getPacketCount(UpdateScorePacket.class));
+        assertEquals(2, board.getWindowOffset());
+    }
+
+    @Test
+    void previousPageOnTheFirstPageSendsNothing() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        SimpleBoard board = createBoard(player);
+
+        player.record(board::previousPage)
+                .assertNothingSent();
+    }
+
+    private static SimpleBoard createBoard(TestPlayer player) {
+        SimpleBoard board = new SimpleBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.setKeyedLines(true);
+        board.setWindowSize(WINDOW_SIZE);
+        board.setLineComponents(lines());
+        player.clear();
+        return board;
+    }
+
+    private static List<Component> lines() {
+        List<Component> lines = new ArrayList<>(LINES);
+        for (int i = 0; i < LINES; i++) {
+            lines.add(Component.text(String.valueOf(i)));
+        }
+        return lines;
+    }
+
+}
@@ -0,0 +1,92 @@
+package de.timongcraft.veloboard;
+
+import de.timongcraft.velopacketimpl.utils.ComponentUtils;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The packet budget of the transitions: a {@code REMOVE} costs two packets (team and score), a {@code CREATE} two
+ * (score and team) and an {@code UPDATE} one, so the planned steps determine the packets sent.
+ */
+class TeamLinePlannerTest {
+
+    @Test
+    void growCreatesOnlyTheNewLines() {
+        // lines are planned by score, which counts from the bottom: the new line on top gets the next score
+        assertEquals(List.of("CREATE 1", "CREATE 2"), plan(lines("a"), lines("c", "b", "a")));
+    }
+
+    @Test
+    void shrinkRemovesOnlyTheDroppedLines() {
+        assertEquals(List.of("REMOVE 2", "REMOVE 1"), plan(lines("c", "b", "a"), lines("a")));
+    }
+
+    @Test
+    void singleLineChangeUpdatesOnlyThatLine() {
+        assertEquals(List.of("UPDATE 1"), plan(lines("a", "b", "c"), lines("a", "x", "c")));
+    }
+
+    @Test
+    void identicalLinesPlanNothing() {
+        assertEquals(List.of(), plan(lines("a", "b", "c"), lines("a", "b", "c")));
+    }
+
+    @Test
+    void removalsArePlannedBeforeUpdates() {
+        assertEquals(List.of("REMOVE 2", "UPDATE 0"), plan(lines("a", "b", "c"), lines("b", "x")));
+    }
+
+    @Test
+    void fingerprintsPlanLikeLines() {
+        List<TeamLine> oldLines = lines("a", "b", "c");
+        List<TeamLine> newLines = lines("x", "b");
+
+        List<String> steps = new ArrayList<>();
+        TeamLinePlanner.planLines(TeamLine.fingerprints(oldLines), newLines, (step, score) -> steps.add(step + " " + score));
+        assertEquals(plan(oldLines, newLines), steps);
+    }
+
+    @Test
+    void unchangedTitleAndNumberFormatNeedNoObjectiveUpdate() {
+        ComponentUtils.NumberFormat format = Mockito.mock(ComponentUtils.NumberFormat.class);
+
+        assertFalse(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Title"), null, null));
+        assertFalse(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Title"), format, format));
+    }
+
+    @Test
+    void titleOnlyChangeNeedsObjectiveUpdateButNoLines() {
+        assertTrue(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Other"), null, null));
+        assertEquals(List.of(), plan(lines("a", "b"), lines("a", "b")));
+    }
+
+    @Test
+    void numberFormatOnlyChangeNeedsObjectiveUpdate() {
+        ComponentUtils.NumberFormat format = Mockito.mock(ComponentUtils.NumberFormat.class);
+        ComponentUtils.NumberFormat otherFormat = Mockito.mock(ComponentUtils.NumberFormat.class);
+
+        assertTrue(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Title"), null, format));
+        assertTrue(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Title"), format, otherFormat));
+        assertTrue(TeamLinePlanner.needsObjectiveUpdate(Component.text("Title"), Component.text("Title"), format, null));
+    }
+
+    private static List<String> plan(List<TeamLine> oldLines, List<TeamLine> newLines) {
+        List<String> steps = new ArrayList<>();
+        TeamLinePlanner.planLines(oldLines, newLines, (step, score) -> steps.add(step + " " + score));
+        return steps;
+    }
+
+    private static List<TeamLine> lines(String... lines) {
+        return Arrays.stream(lines).map(line -> TeamLine.of(Component.text(line))).toList();
+    }
+
+}
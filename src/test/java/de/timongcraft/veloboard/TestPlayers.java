@@ -0,0 +1,36 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import io.netty.channel.EventLoop;
+
+final class TestPlayers {
+
+    private static boolean registered = false;
+
+    /**
+     * Creates a player recording the packets sent to it, registering the board packets on first use like a plugin would.
+     */
+    static TestPlayer create(ProtocolVersion version) {
+        register();
+        return TestPlayer.create(version);
+    }
+
+    /**
+     * Like {@link #create(ProtocolVersion)}, for boards confined to the event loop.
+     */
+    static TestPlayer create(ProtocolVersion version, EventLoop eventLoop) {
+        register();
+        return TestPlayer.create(version, eventLoop);
+    }
+
+    private static synchronized void register() {
+        if (!registered) {
+            VeloBoardRegistry.register();
+            registered = true;
+        }
+    }
+
+    private TestPlayers() {}
+
+}
@@ -0,0 +1,95 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.PacketRecording;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.ResetScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateTeamsPacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Lines are diffed by their score: added or removed lines only create or remove their score (see {@link PacketBudgetTest} before 1.20.3).
+ * Double buffered boards only swap changes the client would see.
+ */
+class VeloBoardTest {
+
+    @Test
+    void singleLineChangeUpdatesOnlyItsTeamBefore1_20_3() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_20_2);
+        VeloBoard board = createBoard(player);
+
+        player.record(() -> board.updateLine(1, Component.text("x")))
+                .assertSequence(UpdateTeamsPacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void prependedLineOnlyCreatesItsScore() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+
+        player.record(() -> board.updateLines(Component.text("x"), Component.text("a"), Component.text("b"), Component.text("c")))
+                .assertSequence(UpdateScorePacket.class)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void removedTopLineOnlyResetsItsScore() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+
+        player.record(() -> board.updateLines(Component.text("b"), Component.text("c")))
+                .assertSequence(ResetScorePacket.class);
+    }
+
+    @Test
+    void resendDoesNotSwap() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        board.setDoubleBuffered(true);
+
+        // removing and creating the objective, without building a back buffer
+        PacketRecording recording = player.record(board::resend);
+        assertEquals(2, recording.getPacketCount(UpdateObjectivesPacket.class));
+        assertEquals(3, recording.getPacketCount(UpdateScorePacket.class));
+    }
+
+    @Test
+    void hiddenBoardDiffsInPlace() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        board.setDoubleBuffered(true);
+        board.clear();
+
+        player.record(() -> board.updateLines(Component.text("x"), Component.text("y"), Component.text("z")))
+                .assertPacketBudget(UpdateObjectivesPacket.class, 0);
+    }
+
+    @Test
+    void lineAnimationBeyondTheMaximumIsRejected() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        Animation animation = Animation.frames(Duration.ofMillis(50), Component.text("1"), Component.text("2"));
+
+        assertThrows(IllegalArgumentException.class, () -> board.setLineAnimation(VeloBoard.MAX_LINES_SIZE, animation));
+        // nothing was stored, so advancing the animations doesn't fail on the rejected line
+        assertDoesNotThrow(board::advanceAnimations);
+    }
+
+    private static VeloBoard createBoard(TestPlayer player) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.updateLines(Component.text("a"), Component.text("b"), Component.text("c"));
+        return board;
+    }
+
+}
@@ -0,0 +1,76 @@
+package de.timongcraft.veloboard;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import de.timongcraft.veloboard.testkit.TestPlayer;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateObjectivesPacket;
+import de.timongcraft.velopacketimpl.network.protocol.packets.UpdateScorePacket;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * While the channel of a player is not writable, boards write nothing, and once it is writable again
+ * they send the final state of all changes in one flush.
+ */
+class WritabilityListenerTest {
+
+    @Test
+    void nothingIsWrittenWhileUnwritable() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        setWritable(player, false);
+
+        player.record(() -> {
+            board.updateLine(0, Component.text("x"));
+            board.updateLine(0, Component.text("y"));
+            board.updateTitle(Component.text("Other"));
+        }).assertNothingSent();
+        assertEquals(Component.text("y"), board.getLine(0));
+    }
+
+    @Test
+    void changesAreReplayedOnceWritable() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        setWritable(player, false);
+        board.updateLine(0, Component.text("x"));
+        board.updateLine(0, Component.text("y"));
+        board.updateLine(0, Component.text("z"));
+        board.updateTitle(Component.text("Other"));
+
+        player.record(() -> setWritable(player, true))
+                .assertPacketBudget(UpdateScorePacket.class, 1)
+                .assertPacketBudget(UpdateObjectivesPacket.class, 1)
+                .assertFlushBudget(1);
+    }
+
+    @Test
+    void changesAreSentDirectlyOnceWritable() {
+        TestPlayer player = TestPlayers.create(ProtocolVersion.MINECRAFT_1_21_4);
+        VeloBoard board = createBoard(player);
+        setWritable(player, false);
+        board.updateLine(0, Component.text("x"));
+        setWritable(player, true);
+
+        player.record(() -> board.updateLine(1, Component.text("y")))
+                .assertSequence(UpdateScorePacket.class);
+    }
+
+    private static VeloBoard createBoard(TestPlayer player) {
+        VeloBoard board = new VeloBoard(player.getPlayer(), Component.text("Title"));
+        board.initialize();
+        board.updateLines(Component.text("a"), Component.text("b"));
+        player.clear();
+        return board;
+    }
+
+    /**
+     * Changes the writability like a full outbound buffer would, and runs the tasks notifying the boards.
+     */
+    private static void setWritable(TestPlayer player, boolean writable) {
+        player.getChannel().unsafe().outboundBuffer().setUserDefinedWritability(1, writable);
+        player.getChannel().runPendingTasks();
+    }
+
+}
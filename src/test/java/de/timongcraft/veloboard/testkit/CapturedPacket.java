@@ -0,0 +1,32 @@
+package de.timongcraft.veloboard.testkit;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+
+/**
+ * A packet written to a {@link TestPlayer}.
+ *
+ * @param packet the packet
+ * @param size   the size of the encoded packet (id and body) for the version of the player, excluding the frame length and compression
+ */
+@SuppressWarnings("unused")
+public record CapturedPacket(MinecraftPacket packet, int size) {
+
+    public boolean is(Class<? extends MinecraftPacket> type) {
+        return type.isInstance(packet);
+    }
+
+    /**
+     * @return the size of the packet encoded for another version
+     */
+    public int sizeFor(ProtocolVersion version) {
+        return EncodedPacket.encode(packet, version).size();
+    }
+
+    @Override
+    public String toString() {
+        return packet.getClass().getSimpleName() + " (" + size + " bytes)";
+    }
+
+}
@@ -0,0 +1,110 @@
+package de.timongcraft.veloboard.testkit;
+
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The packets written and the flushes caused by an operation, see {@link TestPlayer#record(Runnable)}.
+ *
+ * <p>The assertions throw an {@link AssertionError}, so they work with any test framework.
+ */
+@SuppressWarnings("unused")
+public final class PacketRecording {
+
+    private final List<CapturedPacket> packets;
+    private final int flushes;
+
+    PacketRecording(List<CapturedPacket> packets, int flushes) {
+        this.packets = packets;
+        this.flushes = flushes;
+    }
+
+    public List<CapturedPacket> getPackets() {
+        return packets;
+    }
+
+    public int getPacketCount() {
+        return packets.size();
+    }
+
+    public int getPacketCount(Class<? extends MinecraftPacket> type) {
+        return (int) packets.stream().filter(packet -> packet.is(type)).count();
+    }
+
+    /**
+     * @return the summed size of the encoded packets
+     */
+    public long getBytes() {
+        return packets.stream().mapToLong(CapturedPacket::size).sum();
+    }
+
+    public int getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Asserts that the operation wrote exactly packets of these types, in this order.
+     */
+    @SafeVarargs
+    public final PacketRecording assertSequence(Class<? extends MinecraftPacket>... types) {
+        List<Class<?>> actual = packets.stream().<Class<?>>map(packet -> packet.packet().getClass()).toList();
+        if (!actual.equals(Arrays.asList(types))) {
+            fail("Expected packets " + Arrays.stream(types).map(Class::getSimpleName).toList());
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the operation wrote at most this many packets.
+     */
+    public PacketRecording assertPacketBudget(int maxPackets) {
+        if (packets.size() > maxPackets) {
+            fail("Expected at most " + maxPackets + " packets");
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the operation wrote at most this many packets of the type.
+     */
+    public PacketRecording assertPacketBudget(Class<? extends MinecraftPacket> type, int maxPackets) {
+        if (getPacketCount(type) > maxPackets) {
+            fail("Expected at most " + maxPackets + " " + type.getSimpleName() + " packets");
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the encoded packets of the operation are at most this many bytes in total.
+     */
+    public PacketRecording assertByteBudget(long maxBytes) {
+        if (getBytes() > maxBytes) {
+            fail("Expected at most " + maxBytes + " bytes (got " + getBytes() + ")");
+        }
+        return this;
+    }
+
+    /**
+     * Asserts that the operation flushed the channel at most this many times.
+     */
+    public PacketRecording assertFlushBudget(int maxFlushes) {
+        if (flushes > maxFlushes) {
+            fail("Expected at most " + maxFlushes + " flushes (got " + flushes + ")");
+        }
+        return this;
+    }
+
+    public PacketRecording assertNothingSent() {
+        if (!packets.isEmpty()) {
+            fail("Expected no packets");
+        }
+        return this;
+    }
+
+    private void fail(String message) {
+        throw new AssertionError(message + ", but got " + packets.size() + " packets: " + packets);
+    }
+
+}
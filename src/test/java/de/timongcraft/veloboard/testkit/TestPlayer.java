@@ -0,0 +1,214 @@
+package de.timongcraft.veloboard.testkit;
+
+import com.velocitypowered.api.network.ProtocolVersion;
+import com.velocitypowered.api.util.GameProfile;
+import com.velocitypowered.proxy.connection.MinecraftConnection;
+import com.velocitypowered.proxy.connection.client.ConnectedPlayer;
+import com.velocitypowered.proxy.network.ConnectionTypes;
+import com.velocitypowered.proxy.protocol.MinecraftPacket;
+import com.velocitypowered.proxy.protocol.ProtocolUtils;
+import com.velocitypowered.proxy.protocol.StateRegistry;
+import de.timongcraft.veloboard.utils.EncodedPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A {@link ConnectedPlayer} in the play state whose connection writes into an in-memory channel
+ * and records every packet a board sends to it, along with its encoded size and the number of flushes.
+ *
+ * <p>Example: {@code TestPlayer player = TestPlayer.create(ProtocolVersion.MINECRAFT_1_21_4); PacketRecording recording = player.record(() -> board.updateLine(0, line));}
+ */
+@SuppressWarnings("unused")
+public final class TestPlayer {
+
+    private final ConnectedPlayer player;
+    private final EmbeddedChannel channel;
+    private final ProtocolVersion version;
+    private final List<CapturedPacket> packets = new ArrayList<>();
+    private int flushes = 0;
+
+    private TestPlayer(ConnectedPlayer player, EmbeddedChannel channel, ProtocolVersion version) {
+        this.player = player;
+        this.channel = channel;
+        this.version = version;
+    }
+
+    public static TestPlayer create(ProtocolVersion version) {
+        return create(version, "TestPlayer", UUID.randomUUID());
+    }
+
+    /**
+     * @param handlers handlers added to the pipeline of the channel, e.g. Velocity's encoder to encode the packets while writing them
+     */
+    public static TestPlayer create(ProtocolVersion version, String name, UUID uuid, ChannelHandler... handlers) {
+        return create(version, name, uuid, null, handlers);
+    }
+
+    /**
+     * Creates a player whose channel reports the event loop as its own, for boards confined to it.
+     * The channel is written on the event loop, so packets must only be read while the event loop is idle.
+     */
+    public static TestPlayer create(ProtocolVersion version, EventLoop eventLoop) {
+        Objects.requireNonNull(eventLoop, "eventLoop");
+        return create(version, "TestPlayer", UUID.randomUUID(), eventLoop);
+    }
+
+    private static TestPlayer create(ProtocolVersion version, String name, UUID uuid, @Nullable EventLoop eventLoop, ChannelHandler... handlers) {
+        Objects.requireNonNull(version, "version");
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(uuid, "uuid");
+
+        EmbeddedChannel channel = eventLoop == null ? new EmbeddedChannel() : new EmbeddedChannel() {
+            @Override
+            public EventLoop eventLoop() {
+                return eventLoop;
+            }
+        };
+        TestPlayer[] testPlayer = new TestPlayer[1];
+        channel.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+            @Override
+            public void flush(ChannelHandlerContext ctx) {
+                testPlayer[0].flushes++;
+                ctx.flush();
+            }
+        });
+        channel.pipeline().addLast(handlers);
+
+        MinecraftConnection connection = new MinecraftConnection(channel, null);
+        connection.setType(ConnectionTypes.VANILLA);
+        connection.setProtocolVersion(version);
+        connection.setState(StateRegistry.PLAY);
+
+        testPlayer[0] = new TestPlayer(createPlayer(new GameProfile(uuid, name, List.of()), connection), channel, version);
+        return testPlayer[0];
+    }
+
+    public ConnectedPlayer getPlayer() {
+        return player;
+    }
+
+    public ProtocolVersion getVersion() {
+        return version;
+    }
+
+    public EmbeddedChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return the packets written since the last {@link #clear()}, in the order they were written
+     */
+    public List<CapturedPacket> getPackets() {
+        drain();
+        return List.copyOf(packets);
+    }
+
+    /**
+     * @return the number of flushes since the last {@link #clear()}
+     */
+    public int getFlushes() {
+        return flushes;
+    }
+
+    public void clear() {
+        drain();
+        packets.clear();
+        flushes = 0;
+    }
+
+    /**
+     * Runs the operation and records the packets it wrote and the flushes it caused.
+     */
+    public PacketRecording record(Runnable operation) {
+        clear();
+        operation.run();
+        PacketRecording recording = new PacketRecording(getPackets(), flushes);
+        clear();
+        return recording;
+    }
+
+    private void drain() {
+        Object message;
+        while ((message = channel.readOutbound()) != null) {
+            try {
+                packets.add(capture(message));
+            } finally {
+                ReferenceCountUtil.release(message);
+            }
+        }
+    }
+
+    private CapturedPacket capture(Object message) {
+        if (message instanceof MinecraftPacket packet) {
+            return new CapturedPacket(packet, EncodedPacket.encode(packet, version).size());
+        }
+
+        if (message instanceof ByteBuf buf) {
+            // pre-encoded packets, or packets encoded by a handler: decode them again to record the packet
+            int size = buf.readableBytes();
+            ByteBuf copy = buf.duplicate();
+            int packetId = ProtocolUtils.readVarInt(copy);
+            MinecraftPacket packet = StateRegistry.PLAY.getProtocolRegistry(ProtocolUtils.Direction.CLIENTBOUND, version).createPacket(packetId);
+            if (packet == null) {
+                throw new IllegalStateException("Unknown packet id 0x" + Integer.toHexString(packetId) + " for " + version);
+            }
+            packet.decode(copy, ProtocolUtils.Direction.CLIENTBOUND, version);
+            return new CapturedPacket(packet, size);
+        }
+
+        throw new IllegalStateException("Unexpected message " + message.getClass().getName());
+    }
+
+    /**
+     * The constructor of {@link ConnectedPlayer} is internal and its parameters differ between Velocity builds,
+     * so it is called reflectively with the profile and connection and without a server.
+     */
+    private static ConnectedPlayer createPlayer(GameProfile profile, MinecraftConnection connection) {
+        Constructor<?> constructor = findPlayerConstructor();
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] arguments = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == GameProfile.class) {
+                arguments[i] = profile;
+            } else if (parameterTypes[i] == MinecraftConnection.class) {
+                arguments[i] = connection;
+            } else if (parameterTypes[i] == boolean.class) {
+                arguments[i] = false;
+            }
+        }
+
+        try {
+            constructor.setAccessible(true);
+            return (ConnectedPlayer) constructor.newInstance(arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a ConnectedPlayer", e);
+        }
+    }
+
+    /**
+     * @return the constructor taking the profile and the connection, whose other parameters can be passed {@code null} or {@code false}
+     */
+    private static Constructor<?> findPlayerConstructor() {
+        for (Constructor<?> constructor : ConnectedPlayer.class.getDeclaredConstructors()) {
+            List<Class<?>> parameterTypes = List.of(constructor.getParameterTypes());
+            if (parameterTypes.contains(GameProfile.class) && parameterTypes.contains(MinecraftConnection.class)
+                    && parameterTypes.stream().allMatch(type -> !type.isPrimitive() || type == boolean.class)) {
+                return constructor;
+            }
+        }
+        throw new IllegalStateException("No ConnectedPlayer constructor taking a GameProfile and a MinecraftConnection");
+    }
+
+}
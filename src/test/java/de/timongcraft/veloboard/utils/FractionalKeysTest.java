@@ -0,0 +1,59 @@
+package de.timongcraft.veloboard.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Keys must always sort between their bounds, no matter how often the same gap is split.
+ */
+class FractionalKeysTest {
+
+    @Test
+    void spreadKeysAscend() {
+        for (int count : new int[]{1, 2, 15, 35, 36, 100}) {
+            List<String> keys = FractionalKeys.spread(count);
+            assertEquals(count, keys.size());
+            assertAscending(keys);
+        }
+    }
+
+    @Test
+    void repeatedSplitsBelowAKeyStayInOrder() {
+        String lower = "9";
+        String upper = "i";
+        for (int i = 0; i < 100; i++) {
+            String key = FractionalKeys.between(lower, upper);
+            assertAscending(List.of(lower, key, upper));
+            assertFalse(key.endsWith("0"), key);
+            upper = key;
+        }
+    }
+
+    @Test
+    void repeatedSplitsAboveAKeyStayInOrder() {
+        String lower = "";
+        for (int i = 0; i < 100; i++) {
+            String key = FractionalKeys.between(lower, null);
+            assertTrue(key.compareTo(lower) > 0, key);
+            lower = key;
+        }
+    }
+
+    @Test
+    void splitsOfAdjacentKeysStayInOrder() {
+        assertAscending(List.of("a", FractionalKeys.between("a", "b"), "b"));
+        assertAscending(List.of("a", FractionalKeys.between("a", "a1"), "a1"));
+    }
+
+    private static void assertAscending(List<String> keys) {
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.toString());
+        }
+    }
+
+}